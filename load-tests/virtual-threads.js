@@ -0,0 +1,36 @@
+// Compares request handling on platform and virtual threads, see "Load test" in README.md.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const SESSION_KEY = __ENV.SESSION_KEY || '9158';
+const DRIVER_ID = Number(__ENV.DRIVER_ID || 1);
+const USERS = Number(__ENV.USERS || 5000);
+
+export const options = {
+    scenarios: {
+        connections: {
+            executor: 'constant-vus',
+            vus: Number(__ENV.VUS || 5000),
+            duration: __ENV.DURATION || '2m',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export default function () {
+    const userId = String(1 + ((__VU * 7919 + __ITER) % USERS));
+
+    const market = http.get(`${BASE_URL}/events/${SESSION_KEY}/drivers_market`, { tags: { name: 'drivers_market' } });
+    check(market, { 'market 200': (r) => r.status === 200 });
+
+    const placed = http.post(
+        `${BASE_URL}/bets`,
+        JSON.stringify({ event_id: SESSION_KEY, driver_id: DRIVER_ID, bet_amount: 0.01 }),
+        { headers: { 'Content-Type': 'application/json', 'X-USER-ID': userId }, tags: { name: 'place_bet' } },
+    );
+    check(placed, { 'bet 201': (r) => r.status === 201 });
+
+    const bets = http.get(`${BASE_URL}/bets?limit=20`, { headers: { 'X-USER-ID': userId }, tags: { name: 'list_bets' } });
+    check(bets, { 'bets 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,130 @@
+package com.radoslawzorawicz.bettingapi;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.radoslawzorawicz.bettingapi.application.bets.BetsApplicationService;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import io.vavr.control.Either;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.assertj.vavr.api.VavrAssertions;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "app.settlement.outbox.worker-enabled=false",
+                "app.openf1.rate.limit-for-period=100000"
+        }
+)
+@ActiveProfiles("virtual-threads")
+@Testcontainers
+class VirtualThreadPinningIT {
+
+    private static final int USERS = 100;
+    private static final int SESSIONS = 50;
+    private static final int PLACEMENTS = 2_000;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    private static final WireMockServer f1ApiMock = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BetsApplicationService betsService;
+
+    @DynamicPropertySource
+    static void openF1(DynamicPropertyRegistry registry) {
+        if (!f1ApiMock.isRunning()) {
+            f1ApiMock.start();
+            f1ApiMock.stubFor(get(urlPathEqualTo("/drivers"))
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withFixedDelay(20)
+                            .withBody("""
+                                    [{"driver_number": 44, "full_name": "Lewis Hamilton", "team_name": "Ferrari"}]
+                                    """)));
+        }
+        registry.add("app.openf1.base-url", f1ApiMock::baseUrl);
+    }
+
+    @AfterAll
+    static void stop() {
+        f1ApiMock.stop();
+    }
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("TRUNCATE bets, accounts");
+        jdbcTemplate.update("""
+                INSERT INTO accounts (user_id, account_balance)
+                SELECT u, 1000 FROM generate_series(1, ?) AS u
+                """, USERS);
+    }
+
+    @Test
+    void shouldPlaceBetsOnVirtualThreadsWithoutPinning() throws Exception {
+        // given
+        VavrAssertions.assertThat(place(0)).isRight();
+        final List<RecordedEvent> pinned = new CopyOnWriteArrayList<>();
+
+        // when
+        final List<Either<BetPlacementError, Integer>> results = new ArrayList<>();
+        try (var recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withoutThreshold().withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", pinned::add);
+            recording.startAsync();
+
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                final List<Future<Either<BetPlacementError, Integer>>> futures = new ArrayList<>();
+                for (int i = 1; i <= PLACEMENTS; i++) {
+                    final int placement = i;
+                    futures.add(executor.submit(() -> place(placement)));
+                }
+                for (Future<Either<BetPlacementError, Integer>> future : futures) {
+                    results.add(future.get());
+                }
+            }
+            recording.stop();
+        }
+
+        // then
+        assertThat(results).allMatch(Either::isRight);
+        assertThat(pinned).extracting(RecordedEvent::toString).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bets", Integer.class)).isEqualTo(PLACEMENTS + 1);
+    }
+
+    private Either<BetPlacementError, Integer> place(int placement) {
+        final var command = new PlaceBetCommand("S" + placement % SESSIONS, 44, new BigDecimal("1.00"));
+        return betsService.placeBet(1 + placement % USERS, command);
+    }
+}
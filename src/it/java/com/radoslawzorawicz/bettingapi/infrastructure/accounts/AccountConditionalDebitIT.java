@@ -0,0 +1,56 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class AccountConditionalDebitIT {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private AccountJpaRepository accountJpaRepository;
+
+    @Test
+    void shouldDebitDownToZeroAndNoFurther() {
+        // when
+        final var first = accountJpaRepository.tryDebit(1, new BigDecimal("60.00"));
+        final var second = accountJpaRepository.tryDebit(1, new BigDecimal("40.01"));
+        final var third = accountJpaRepository.tryDebit(1, new BigDecimal("40.00"));
+
+        // then
+        assertThat(first).containsExactly(true);
+        assertThat(second).containsExactly(false);
+        assertThat(third).containsExactly(true);
+        assertThat(balanceOf(1)).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void shouldReturnNothingForUnknownUser() {
+        // expect
+        assertThat(accountJpaRepository.tryDebit(999, new BigDecimal("1.00"))).isEmpty();
+    }
+
+    private BigDecimal balanceOf(int userId) {
+        return new JdbcTemplate(dataSource).queryForObject(
+                "SELECT account_balance FROM accounts WHERE user_id = ?", BigDecimal.class, userId);
+    }
+}
@@ -0,0 +1,253 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import com.radoslawzorawicz.bettingapi.domain.accounts.DebitOutcome;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.settlement.outbox.worker-enabled=false"
+)
+@Testcontainers
+class AccountLedgerRecoveryIT {
+
+    private static final int USER_ID = 1;
+    private static final int OTHER_USER_ID = 2;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void seed() {
+        transaction = new TransactionTemplate(transactionManager);
+        jdbcTemplate.execute("TRUNCATE account_ledger RESTART IDENTITY");
+        jdbcTemplate.update("UPDATE accounts SET account_balance = 100");
+    }
+
+    @Test
+    void shouldRecoverUncompactedDebitsAfterRestart() {
+        // given
+        final var ledger = ledger(transactionManager);
+        placeBet(ledger, "30.00", 1);
+        placeBet(ledger, "30.00", 2);
+
+        // when
+        final var restarted = ledger(transactionManager);
+
+        // then
+        assertThat(restarted.tryDebit(USER_ID, money("40.01"))).isEqualTo(DebitOutcome.INSUFFICIENT_FUNDS);
+        assertThat(placeBet(restarted, "40.00", 3)).isEqualTo(DebitOutcome.DEBITED);
+        assertThat(balance()).isEqualByComparingTo("100.00");
+
+        // when
+        restarted.compact(100);
+
+        // then
+        assertThat(balance()).isEqualByComparingTo("0.00");
+        assertThat(uncompactedEntries()).isZero();
+    }
+
+    @Test
+    void shouldGiveBackDebitWhenBetTransactionRollsBack() {
+        // given
+        final var ledger = ledger(transactionManager);
+
+        // when
+        assertThatThrownBy(() -> transaction.executeWithoutResult(status -> {
+            ledger.tryDebit(USER_ID, money("100.00"));
+            throw new IllegalStateException("bet insert failed");
+        })).hasMessage("bet insert failed");
+
+        // then
+        assertThat(placeBet(ledger, "100.00", 1)).isEqualTo(DebitOutcome.DEBITED);
+    }
+
+    @Test
+    void shouldRefuseDebitOutsideTransaction() {
+        // given
+        final var ledger = ledger(transactionManager);
+
+        // expect
+        assertThatThrownBy(() -> ledger.tryDebit(USER_ID, money("1.00"))).isInstanceOf(IllegalStateException.class);
+        assertThat(placeBet(ledger, "100.00", 1)).isEqualTo(DebitOutcome.DEBITED);
+    }
+
+    @Test
+    void shouldKeepEntriesWhenCompactionCrashesAndFoldThemAfterRestart() {
+        // given
+        final var ledger = ledger(transactionManager);
+        placeBet(ledger, "25.00", 1);
+        jdbcTemplate.update("INSERT INTO account_ledger (user_id, kind, amount_cents) VALUES (?, 'CREDIT', 1000)", USER_ID);
+
+        // when
+        final var crashing = ledger(new RollbackOnCommitTransactionManager(transactionManager));
+        assertThatThrownBy(() -> crashing.compact(100)).hasMessageContaining("compactor killed");
+
+        // then
+        assertThat(balance()).isEqualByComparingTo("100.00");
+        assertThat(uncompactedEntries()).isEqualTo(2);
+
+        // when
+        final var restarted = ledger(transactionManager);
+        assertThat(placeBet(restarted, "75.01", 2)).isEqualTo(DebitOutcome.INSUFFICIENT_FUNDS);
+        restarted.compact(100);
+
+        // then
+        assertThat(balance()).isEqualByComparingTo("85.00");
+        assertThat(placeBet(restarted, "85.00", 3)).isEqualTo(DebitOutcome.DEBITED);
+    }
+
+    @Test
+    void shouldNeverOverdrawUnderConcurrentDebits() throws Exception {
+        // given
+        final var ledger = ledger(transactionManager);
+        final List<Callable<DebitOutcome>> bets = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            final int betId = i;
+            bets.add(() -> placeBet(ledger, "1.00", betId));
+        }
+
+        // when
+        final List<DebitOutcome> outcomes = new ArrayList<>();
+        try (var executor = Executors.newFixedThreadPool(16)) {
+            for (Future<DebitOutcome> outcome : executor.invokeAll(bets)) {
+                outcomes.add(outcome.get());
+            }
+        }
+        ledger.compact(1_000);
+
+        // then
+        assertThat(outcomes).filteredOn(DebitOutcome.DEBITED::equals).hasSize(100);
+        assertThat(balance()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    void shouldQuarantineEntryAccountCannotCoverAndFoldTheRest() {
+        // given
+        final var ledger = ledger(transactionManager);
+        placeBet(ledger, "25.00", 1);
+        placeBet(ledger, "5.00", 2);
+        transaction.executeWithoutResult(status -> {
+            ledger.tryDebit(OTHER_USER_ID, money("10.00"));
+            ledger.recordDebit(OTHER_USER_ID, money("10.00"), 3);
+        });
+        // an operator corrects the account row behind the ledger's back
+        jdbcTemplate.update("UPDATE accounts SET account_balance = 20 WHERE user_id = ?", USER_ID);
+
+        // when
+        final int folded = ledger.compact(100);
+
+        // then
+        assertThat(folded).isEqualTo(3);
+        assertThat(balance()).isEqualByComparingTo("15.00");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT account_balance FROM accounts WHERE user_id = ?", BigDecimal.class, OTHER_USER_ID))
+                .isEqualByComparingTo("90.00");
+        assertThat(jdbcTemplate.queryForList("SELECT bet_id FROM account_ledger WHERE quarantined", Integer.class))
+                .containsExactly(1);
+        assertThat(meterRegistry.get("accounts.ledger.quarantined").counter().count()).isEqualTo(1.0);
+        assertThat(ledger.compact(100)).isZero();
+    }
+
+    @Test
+    void shouldLetOnlyOneNodeOwnLedger() throws Exception {
+        // given
+        final var owner = new AccountLedgerOwnership(dataSource);
+
+        // expect
+        assertThatThrownBy(() -> new AccountLedgerOwnership(dataSource))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Another node owns the account ledger");
+
+        // when
+        owner.close();
+
+        // then
+        new AccountLedgerOwnership(dataSource).close();
+    }
+
+    private InMemoryAccountLedger ledger(PlatformTransactionManager transactionManager) {
+        return new InMemoryAccountLedger(jdbcTemplate, new TransactionTemplate(transactionManager), meterRegistry);
+    }
+
+    private DebitOutcome placeBet(InMemoryAccountLedger ledger, String amount, int betId) {
+        return transaction.execute(status -> {
+            final DebitOutcome outcome = ledger.tryDebit(USER_ID, money(amount));
+            if (outcome == DebitOutcome.DEBITED) {
+                ledger.recordDebit(USER_ID, money(amount), betId);
+            }
+            return outcome;
+        });
+    }
+
+    private BigDecimal balance() {
+        return jdbcTemplate.queryForObject(
+                "SELECT account_balance FROM accounts WHERE user_id = ?", BigDecimal.class, USER_ID);
+    }
+
+    private int uncompactedEntries() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM account_ledger WHERE NOT compacted", Integer.class);
+    }
+
+    private static Money money(String amount) {
+        return Money.of(new BigDecimal(amount));
+    }
+
+    // Rolls back instead of committing and dies, like a node killed mid-compaction.
+    private record RollbackOnCommitTransactionManager(PlatformTransactionManager delegate)
+            implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+            return delegate.getTransaction(definition);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) throws TransactionException {
+            delegate.rollback(status);
+            throw new IllegalStateException("compactor killed");
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) throws TransactionException {
+            delegate.rollback(status);
+        }
+    }
+}
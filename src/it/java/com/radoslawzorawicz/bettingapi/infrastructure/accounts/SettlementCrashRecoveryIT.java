@@ -0,0 +1,156 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.settlement.outbox.worker-enabled=false"
+)
+@Testcontainers
+class SettlementCrashRecoveryIT {
+
+    private static final String EVENT_ID = "GP-CRASH";
+    private static final int WINNER = 44;
+    private static final int BETS = 10_000;
+    private static final int CHUNK_SIZE = 500;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("TRUNCATE bets, settlement_checkpoints RESTART IDENTITY");
+        jdbcTemplate.update("UPDATE accounts SET account_balance = 100");
+        jdbcTemplate.update("""
+                INSERT INTO bets (amount, event_id, driver_id, user_id, status, odds)
+                SELECT ((i % 97) + 1) / 10.0, ?, CASE WHEN i % 3 = 0 THEN 44 ELSE 16 END, 1 + i % 5, 'PENDING', 2 + i % 3
+                FROM generate_series(1, ?) AS i
+                """, EVENT_ID, BETS);
+    }
+
+    @Test
+    void shouldResumeFromCheckpointWithoutPayingAnyBetTwice() {
+        // given
+        final BigDecimal expectedTotalPayout = jdbcTemplate.queryForObject(
+                "SELECT SUM(amount * odds) FROM bets WHERE event_id = ? AND driver_id = ?",
+                BigDecimal.class, EVENT_ID, WINNER);
+        final var crashingWorker = engine(new CrashingTransactionManager(transactionManager, 7));
+
+        // when
+        assertThatThrownBy(() -> crashingWorker.settle(EVENT_ID, WINNER))
+                .hasMessageContaining("worker killed");
+
+        // then
+        final int settledBeforeCrash = countNotPending();
+        assertThat(settledBeforeCrash).isEqualTo(7 * CHUNK_SIZE);
+        assertThat(checkpoint()).isEqualTo(nthBetId(7 * CHUNK_SIZE));
+        assertThat(settledCount()).isEqualTo(7L * CHUNK_SIZE);
+
+        // when
+        engine(transactionManager).settle(EVENT_ID, WINNER);
+
+        // then
+        assertThat(countNotPending()).isEqualTo(BETS);
+        assertThat(settledCount()).isEqualTo(BETS);
+        assertThat(totalBalance()).isEqualByComparingTo(BigDecimal.valueOf(500).add(expectedTotalPayout));
+    }
+
+    @Test
+    void shouldNotPayAgainWhenFinishedEventIsSettledOnceMore() {
+        // given
+        engine(transactionManager).settle(EVENT_ID, WINNER);
+        final BigDecimal balanceAfterSettlement = totalBalance();
+
+        // when
+        engine(transactionManager).settle(EVENT_ID, WINNER);
+
+        // then
+        assertThat(totalBalance()).isEqualByComparingTo(balanceAfterSettlement);
+        assertThat(settledCount()).isEqualTo(BETS);
+    }
+
+    private SqlSettlementEngine engine(PlatformTransactionManager transactionManager) {
+        return new SqlSettlementEngine(
+                jdbcTemplate, new TransactionTemplate(transactionManager), CHUNK_SIZE, SqlSettlementEngine.CreditTarget.ACCOUNTS);
+    }
+
+    private int countNotPending() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM bets WHERE event_id = ? AND status <> 'PENDING'", Integer.class, EVENT_ID);
+    }
+
+    private int nthBetId(int n) {
+        return jdbcTemplate.queryForObject(
+                "SELECT id FROM bets WHERE event_id = ? ORDER BY id OFFSET ? LIMIT 1", Integer.class, EVENT_ID, n - 1);
+    }
+
+    private int checkpoint() {
+        return jdbcTemplate.queryForObject(
+                "SELECT last_bet_id FROM settlement_checkpoints WHERE event_id = ?", Integer.class, EVENT_ID);
+    }
+
+    private long settledCount() {
+        return jdbcTemplate.queryForObject(
+                "SELECT settled_bets FROM settlement_checkpoints WHERE event_id = ?", Long.class, EVENT_ID);
+    }
+
+    private BigDecimal totalBalance() {
+        return jdbcTemplate.queryForObject("SELECT SUM(account_balance) FROM accounts", BigDecimal.class);
+    }
+
+    // Lets the first commits through, then rolls back the chunk in flight and dies, like a killed worker would.
+    private static final class CrashingTransactionManager implements PlatformTransactionManager {
+        private final PlatformTransactionManager delegate;
+        private final int commitsBeforeCrash;
+        private final AtomicInteger commits = new AtomicInteger();
+
+        private CrashingTransactionManager(PlatformTransactionManager delegate, int commitsBeforeCrash) {
+            this.delegate = delegate;
+            this.commitsBeforeCrash = commitsBeforeCrash;
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+            return delegate.getTransaction(definition);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) throws TransactionException {
+            if (commits.incrementAndGet() > commitsBeforeCrash) {
+                delegate.rollback(status);
+                throw new IllegalStateException("worker killed");
+            }
+            delegate.commit(status);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) throws TransactionException {
+            delegate.rollback(status);
+        }
+    }
+}
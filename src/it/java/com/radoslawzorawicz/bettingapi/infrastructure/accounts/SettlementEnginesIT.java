@@ -0,0 +1,166 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import com.radoslawzorawicz.bettingapi.application.accounts.BetsSettlementService;
+import com.radoslawzorawicz.bettingapi.application.accounts.SettlementEngine;
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.SettlementPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers
+class SettlementEnginesIT {
+
+    private static final String EVENT_ID = "GP-1";
+    private static final int WINNER = 44;
+    private static final int USERS = 200;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private BetRepository betRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private TransactionTemplate transaction;
+    private SettlementEngine sqlEngine;
+    private SettlementEngine jpaEngine;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        sqlEngine = new SqlSettlementEngine(
+                jdbcTemplate, new TransactionTemplate(transactionManager), 5_000, SqlSettlementEngine.CreditTarget.ACCOUNTS);
+        jpaEngine = new BetsSettlementService(betRepository, accountRepository, new SettlementPolicy());
+    }
+
+    @Test
+    void shouldProduceSameBalancesAndStatusesAsEntityEngine() {
+        // given
+        seed(20_000);
+        settleWith(jpaEngine);
+        final var jpaBalances = balances();
+        final var jpaStatuses = statuses();
+
+        seed(20_000);
+
+        // when
+        settleWith(sqlEngine);
+
+        // then
+        assertThat(balances()).isEqualTo(jpaBalances);
+        assertThat(statuses()).isEqualTo(jpaStatuses);
+        assertThat(pendingBets()).isZero();
+    }
+
+    @Test
+    void shouldNotPayTwiceWhenEventIsSettledAgain() {
+        // given
+        seed(1_000);
+        settleWith(sqlEngine);
+        final var balancesAfterFirstRun = balances();
+
+        // when
+        settleWith(sqlEngine);
+
+        // then
+        assertThat(balances()).isEqualTo(balancesAfterFirstRun);
+    }
+
+    @Test
+    void shouldSettleLargeEventWithOneStatementPerChunk() {
+        // given
+        seed(50_000);
+        final var countingJdbcTemplate = new CountingJdbcTemplate(jdbcTemplate.getDataSource());
+        final var chunked = new SqlSettlementEngine(
+                countingJdbcTemplate, new TransactionTemplate(transactionManager), 5_000, SqlSettlementEngine.CreditTarget.ACCOUNTS);
+        final int pending = pendingBets();
+
+        // when
+        settleWith(chunked);
+
+        // then
+        assertThat(pendingBets()).isZero();
+        // checkpoint lookup, one statement per chunk and the empty chunk that ends the run
+        assertThat(countingJdbcTemplate.statements).hasValue(1 + (pending + 4_999) / 5_000 + 1);
+    }
+
+    private void settleWith(SettlementEngine engine) {
+        transaction.executeWithoutResult(ignored -> engine.settle(EVENT_ID, WINNER));
+    }
+
+    // Deterministic data set: odd cent amounts to exercise rounding, a mix of winners, losers, already settled bets,
+    // bets on another event and winners without an account.
+    private void seed(int bets) {
+        jdbcTemplate.execute("TRUNCATE bets, accounts, settlement_checkpoints RESTART IDENTITY");
+        jdbcTemplate.update("""
+                INSERT INTO accounts (user_id, account_balance)
+                SELECT u, 100 + u / 7.0 FROM generate_series(1, ?) AS u
+                """, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO bets (amount, event_id, driver_id, user_id, status, odds)
+                SELECT ((i % 997) + 1) / 100.0,
+                       CASE WHEN i % 50 = 0 THEN 'GP-2' ELSE 'GP-1' END,
+                       CASE i % 4 WHEN 0 THEN 44 WHEN 1 THEN 1 WHEN 2 THEN 16 ELSE 44 END,
+                       1 + i % (? + 10),
+                       CASE WHEN i % 33 = 0 THEN 'LOST' ELSE 'PENDING' END,
+                       2 + i % 3
+                FROM generate_series(1, ?) AS i
+                """, USERS, bets);
+        jdbcTemplate.execute("ANALYZE bets");
+    }
+
+    private int pendingBets() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM bets WHERE event_id = ? AND status = 'PENDING'", Integer.class, EVENT_ID);
+    }
+
+    private List<String> balances() {
+        return jdbcTemplate.queryForList(
+                "SELECT user_id || ':' || ROUND(account_balance, 2) FROM accounts ORDER BY user_id", String.class);
+    }
+
+    private List<String> statuses() {
+        return jdbcTemplate.queryForList("SELECT id || ':' || status FROM bets ORDER BY id", String.class);
+    }
+
+    private static final class CountingJdbcTemplate extends JdbcTemplate {
+        private final AtomicInteger statements = new AtomicInteger();
+
+        private CountingJdbcTemplate(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        // both statements of the engine are queries, every prepared query goes through here
+        @Override
+        public <T> T query(PreparedStatementCreator psc, PreparedStatementSetter pss, ResultSetExtractor<T> rse) {
+            statements.incrementAndGet();
+            return super.query(psc, pss, rse);
+        }
+    }
+}
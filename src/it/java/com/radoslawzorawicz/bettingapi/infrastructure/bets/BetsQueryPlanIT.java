@@ -0,0 +1,113 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BetsQueryPlanIT {
+
+    private static final int BETS = 1_000_000;
+    private static final int USERS = 10_000;
+    private static final int EVENTS = 2_000;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private BetJpaRepository betJpaRepository;
+
+    private JdbcTemplate jdbc;
+
+    @BeforeAll
+    void seed() {
+        jdbc = new JdbcTemplate(dataSource);
+        // every 100th bet is still pending, the rest are settled
+        jdbc.update("""
+                INSERT INTO bets (amount, event_id, driver_id, user_id, status, odds)
+                SELECT 10, 'E' || (i % ?), 1 + i % 20, 1 + i % ?,
+                       CASE WHEN i % 100 = 0 THEN 'PENDING' WHEN i % 2 = 0 THEN 'WON' ELSE 'LOST' END,
+                       2
+                FROM generate_series(1, ?) AS i
+                """, EVENTS, USERS, BETS);
+        jdbc.execute("ANALYZE bets");
+    }
+
+    @Test
+    void shouldServeUserHistoryFromUserIdIdDescIndex() {
+        // when
+        final String plan = explain("SELECT * FROM bets WHERE user_id = 42 ORDER BY id DESC");
+
+        // then
+        assertThat(plan)
+                .contains("idx_bets_user_id_id_desc")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void shouldServePendingBetsOfEventFromPartialIndex() {
+        // when
+        final String plan = explain("SELECT * FROM bets WHERE event_id = 'E100' AND status = 'PENDING'");
+
+        // then
+        assertThat(plan)
+                .contains("idx_bets_pending_event_id_id")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void shouldWalkPendingBetsOfEventInIdOrderWithoutSorting() {
+        // when
+        final String plan = explain("SELECT id FROM bets WHERE event_id = 'E100' AND status = 'PENDING' AND id > 0 ORDER BY id LIMIT 100");
+
+        // then
+        assertThat(plan)
+                .contains("idx_bets_pending_event_id_id")
+                .doesNotContain("Sort")
+                .doesNotContain("Seq Scan");
+    }
+
+    @Test
+    void shouldReadPendingBetsOfEventThroughRepository() {
+        // when
+        final List<BetJpaEntity> pending = betJpaRepository.findAllPendingByEventId("E100");
+
+        // then
+        assertThat(pending)
+                .hasSize(BETS / EVENTS)
+                .allMatch(bet -> bet.getEventId().equals("E100"));
+    }
+
+    @Test
+    void shouldRejectSecondAccountForSameUser() {
+        // when / then
+        assertThatThrownBy(() -> jdbc.update("INSERT INTO accounts (user_id) VALUES (1)"))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("ux_accounts_user_id");
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
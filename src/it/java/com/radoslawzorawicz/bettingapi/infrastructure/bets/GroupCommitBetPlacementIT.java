@@ -0,0 +1,159 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import com.radoslawzorawicz.bettingapi.application.bets.TransactionalBetPlacementWriter;
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import io.vavr.control.Either;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.settlement.outbox.worker-enabled=false"
+)
+@Testcontainers
+class GroupCommitBetPlacementIT {
+
+    private static final int USERS = 1_000;
+    private static final int BATCH_SIZE = 64;
+    private static final PlaceBetCommand COMMAND = new PlaceBetCommand("GP-1", 44, new BigDecimal("1.00"));
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private BetRepository betRepository;
+
+    private CountingTransactionTemplate transaction;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("TRUNCATE bets, accounts RESTART IDENTITY");
+        jdbcTemplate.update("""
+                INSERT INTO accounts (user_id, account_balance)
+                SELECT u, 1000 FROM generate_series(1, ?) AS u
+                """, USERS);
+        transaction = new CountingTransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void shouldCommitQueuedPlacementsInOneTransactionPerBatch() throws Exception {
+        // given
+        final int placements = 10 * BATCH_SIZE;
+        try (var writer = writer(1);
+             var callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<Either<BetPlacementError, Integer>>> results = place(writer, callers, placements);
+            awaitQueued(writer, placements);
+
+            // when
+            writer.start();
+
+            // then
+            for (var result : results) {
+                assertThat(result.get().isRight()).isTrue();
+            }
+        }
+        assertThat(transaction.executions()).isEqualTo(placements / BATCH_SIZE);
+        assertPlaced(placements);
+    }
+
+    @Test
+    void shouldPlaceEveryConcurrentBetOnceAcrossShards() throws Exception {
+        // given
+        final int placements = 20_000;
+        try (var writer = writer(4);
+             var callers = Executors.newFixedThreadPool(64)) {
+            writer.start();
+
+            // when
+            final List<Future<Either<BetPlacementError, Integer>>> results = place(writer, callers, placements);
+
+            // then
+            for (var result : results) {
+                assertThat(result.get().isRight()).isTrue();
+            }
+        }
+        assertThat(transaction.executions()).isBetween(placements / BATCH_SIZE, placements);
+        assertPlaced(placements);
+    }
+
+    private GroupCommitBetPlacementWriter writer(int shards) {
+        return new GroupCommitBetPlacementWriter(
+                new TransactionalBetPlacementWriter(accountRepository, betRepository),
+                transaction, shards, 1_024, BATCH_SIZE, 2);
+    }
+
+    private static List<Future<Either<BetPlacementError, Integer>>> place(GroupCommitBetPlacementWriter writer,
+                                                                          ExecutorService callers,
+                                                                          int placements) {
+        final List<Future<Either<BetPlacementError, Integer>>> results = new ArrayList<>(placements);
+        for (int i = 0; i < placements; i++) {
+            final int userId = 1 + i % USERS;
+            results.add(callers.submit(() -> writer.write(userId, COMMAND, 2)));
+        }
+        return results;
+    }
+
+    private static void awaitQueued(GroupCommitBetPlacementWriter writer, int placements) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writer.queued() < placements) {
+            assertThat(System.nanoTime()).as("placements queued in time").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private void assertPlaced(int placements) {
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM bets", Integer.class)).isEqualTo(placements);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(account_balance) FROM accounts", BigDecimal.class))
+                .isEqualByComparingTo(BigDecimal.valueOf(USERS * 1_000L - placements));
+    }
+
+    private static final class CountingTransactionTemplate extends TransactionTemplate {
+        private final AtomicInteger executions = new AtomicInteger();
+
+        private CountingTransactionTemplate(PlatformTransactionManager transactionManager) {
+            super(transactionManager);
+        }
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            executions.incrementAndGet();
+            return super.execute(action);
+        }
+
+        int executions() {
+            return executions.get();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.accounts.Account;
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {
+                "app.settlement.outbox.worker-enabled=false",
+                "spring.jpa.properties.hibernate.generate_statistics=true"
+        }
+)
+@Testcontainers
+class JdbcBatchingIT {
+
+    private static final int ROWS = 200;
+    private static final int BATCH_SIZE = 50;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private BetRepository betRepository;
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE bets, accounts RESTART IDENTITY");
+        jdbcTemplate.update("INSERT INTO accounts (user_id) SELECT u FROM generate_series(1, ?) AS u", ROWS);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldInsertBetsInJdbcBatches() {
+        // given
+        final List<Bet> bets = IntStream.rangeClosed(1, ROWS)
+                .mapToObj(userId -> new Bet(null, "GP-1", 44, userId, Money.ofCents(1_000), Bet.BetStatus.PENDING, 2))
+                .toList();
+
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(ignored -> betRepository.saveAll(bets));
+
+        // then
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ROWS);
+        // a sequence call per allocation block plus one prepared insert per batch, instead of one insert per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L + 2L * ROWS / BATCH_SIZE);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(DISTINCT id) FROM bets", Integer.class)).isEqualTo(ROWS);
+    }
+
+    @Test
+    void shouldUpdateAccountsInJdbcBatches() {
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(ignored -> {
+            final List<Account> credited = accountRepository.findAllByUserIdIn(IntStream.rangeClosed(1, ROWS).boxed().toList())
+                    .stream()
+                    .map(account -> account.credit(Money.ofCents(500)))
+                    .toList();
+            accountRepository.saveAll(credited);
+        });
+
+        // then
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(ROWS);
+        // the locking select plus one prepared update per batch
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(1L + ROWS / BATCH_SIZE);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(account_balance) FROM accounts", BigDecimal.class))
+                .isEqualByComparingTo(BigDecimal.valueOf(ROWS * 105L));
+    }
+}
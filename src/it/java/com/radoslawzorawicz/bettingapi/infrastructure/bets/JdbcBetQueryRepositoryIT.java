@@ -0,0 +1,150 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPage;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQuery;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.vavr.api.VavrAssertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.settlement.outbox.worker-enabled=false"
+)
+@Testcontainers
+class JdbcBetQueryRepositoryIT {
+
+    private static final int STREAMED_BETS = 1_200;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private BetQueryRepository betQueryRepository;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate.execute("TRUNCATE bets RESTART IDENTITY");
+        // ids 1..7 in insert order; user 1 owns 7, 6, 4, 3 and 1
+        jdbcTemplate.update("""
+                INSERT INTO bets (amount, event_id, driver_id, user_id, status, odds) VALUES
+                    (10, 'E1', 44, 1, 'PENDING', 2),
+                    (10, 'E1', 44, 2, 'PENDING', 2),
+                    (10, 'E2', 44, 1, 'WON', 2),
+                    (10, 'E1', 44, 1, 'LOST', 2),
+                    (10, 'E2', 44, 2, 'WON', 2),
+                    (10, 'E1', 44, 1, 'PENDING', 2),
+                    (10, 'E2', 44, 1, 'PENDING', 2)
+                """);
+    }
+
+    @Test
+    void shouldWalkPagesNewestFirstWithKeysetCursor() {
+        // when
+        final BetPage first = betQueryRepository.findPage(BetQuery.ofUser(1), 2);
+        final BetPage second = betQueryRepository.findPage(new BetQuery(1, null, null, 6), 2);
+        final BetPage last = betQueryRepository.findPage(new BetQuery(1, null, null, 3), 2);
+
+        // then
+        assertThat(ids(first)).containsExactly(7, 6);
+        assertThat(first.nextCursor()).contains(6);
+        assertThat(ids(second)).containsExactly(4, 3);
+        assertThat(second.nextCursor()).contains(3);
+        assertThat(ids(last)).containsExactly(1);
+        assertThat(last.nextCursor()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnNoCursorWhenPageEndsExactlyAtLastBet() {
+        // when
+        final BetPage exact = betQueryRepository.findPage(BetQuery.ofUser(1), 5);
+        final BetPage oneShort = betQueryRepository.findPage(BetQuery.ofUser(1), 4);
+
+        // then
+        assertThat(ids(exact)).containsExactly(7, 6, 4, 3, 1);
+        assertThat(exact.nextCursor()).isEmpty();
+        assertThat(ids(oneShort)).containsExactly(7, 6, 4, 3);
+        assertThat(oneShort.nextCursor()).contains(3);
+    }
+
+    @Test
+    void shouldFilterByStatusAndEvent() {
+        // when
+        final BetPage pending = betQueryRepository.findPage(new BetQuery(1, Bet.BetStatus.PENDING, null, null), 10);
+        final BetPage onEvent = betQueryRepository.findPage(new BetQuery(1, null, "E2", null), 10);
+        final BetPage pendingOnEventAfterCursor =
+                betQueryRepository.findPage(new BetQuery(1, Bet.BetStatus.PENDING, "E1", 6), 10);
+
+        // then
+        assertThat(ids(pending)).containsExactly(7, 6, 1);
+        assertThat(ids(onEvent)).containsExactly(7, 3);
+        assertThat(ids(pendingOnEventAfterCursor)).containsExactly(1);
+        assertThat(pendingOnEventAfterCursor.nextCursor()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnEmptyPageForUserWithoutBets() {
+        // when
+        final BetPage page = betQueryRepository.findPage(BetQuery.ofUser(99), 10);
+
+        // then
+        assertThat(page.bets()).isEmpty();
+        assertThat(page.nextCursor()).isEmpty();
+    }
+
+    @Test
+    void shouldRejectNonPositiveLimit() {
+        // when / then
+        assertThatThrownBy(() -> betQueryRepository.findPage(BetQuery.ofUser(1), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("limit must be positive");
+    }
+
+    @Test
+    void shouldStreamAllBetsThroughServerSideCursor() {
+        // given
+        jdbcTemplate.update("""
+                INSERT INTO bets (amount, event_id, driver_id, user_id, status, odds)
+                SELECT 10, 'E3', 44, 3, 'PENDING', 2 FROM generate_series(1, ?)
+                """, STREAMED_BETS);
+        final List<Integer> streamed = new ArrayList<>();
+        final List<Integer> openCursors = new ArrayList<>();
+
+        // when
+        betQueryRepository.forEach(BetQuery.ofUser(3), bet -> {
+            if (streamed.isEmpty()) {
+                // runs on the same connection and transaction while the first fetch is being consumed
+                openCursors.add(jdbcTemplate.queryForObject(
+                        "SELECT count(*) FROM pg_cursors WHERE statement LIKE '%FROM bets WHERE user_id%'", Integer.class));
+            }
+            streamed.add(bet.id());
+        });
+
+        // then
+        assertThat(openCursors).containsExactly(1);
+        assertThat(streamed).containsExactlyElementsOf(
+                IntStream.iterate(7 + STREAMED_BETS, id -> id > 7, id -> id - 1).boxed().toList());
+    }
+
+    private static List<Integer> ids(BetPage page) {
+        return page.bets().stream().map(Bet::id).toList();
+    }
+}
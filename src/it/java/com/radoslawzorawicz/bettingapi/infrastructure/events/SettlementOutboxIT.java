@@ -0,0 +1,147 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events;
+
+import com.radoslawzorawicz.bettingapi.application.accounts.SettlementOutboxWorker;
+import com.radoslawzorawicz.bettingapi.application.events.EventsApplicationService;
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinished;
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinishedHandler;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Settlement;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.vavr.api.VavrAssertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.settlement.outbox.worker-enabled=false"
+)
+@Testcontainers
+class SettlementOutboxIT {
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EventsApplicationService eventsService;
+    @Autowired
+    private SettlementOutbox outbox;
+    @Autowired
+    private SettlementOutboxWorker worker;
+
+    @BeforeEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE bets, event_outcomes, event_outcomes_log RESTART IDENTITY");
+        jdbcTemplate.update("UPDATE accounts SET account_balance = 100");
+    }
+
+    @Test
+    void shouldAcceptSettlementAndPayOutOnlyOnceWorkerRuns() {
+        // given
+        jdbcTemplate.update("""
+                INSERT INTO bets (amount, event_id, driver_id, user_id, status, odds)
+                VALUES (10, 'GP-1', 44, 1, 'PENDING', 3), (10, 'GP-1', 16, 2, 'PENDING', 2)
+                """);
+
+        // when
+        final var result = eventsService.finishEvent("GP-1", 44);
+
+        // then
+        assertThat(result).isRight();
+        assertThat(eventsService.getSettlement("GP-1"))
+                .hasValueSatisfying(settlement -> assertThat(settlement.status()).isEqualTo(SettlementStatus.PENDING));
+        assertThat(balanceOf(1)).isEqualByComparingTo("100");
+
+        // when
+        final int processed = worker.drain();
+
+        // then
+        assertThat(processed).isEqualTo(1);
+        assertThat(eventsService.getSettlement("GP-1"))
+                .hasValueSatisfying(settlement -> assertThat(settlement.status()).isEqualTo(SettlementStatus.DONE));
+        assertThat(balanceOf(1)).isEqualByComparingTo("130");
+        assertThat(balanceOf(2)).isEqualByComparingTo("100");
+        assertThat(worker.drain()).isZero();
+    }
+
+    @Test
+    void shouldHandEachEventToExactlyOneOfConcurrentWorkers() throws Exception {
+        // given
+        IntStream.rangeClosed(1, 40).forEach(i ->
+                outbox.enqueue(new EventFinished("GP-" + i, 44, OffsetDateTime.now())));
+        final Map<String, AtomicInteger> handled = new ConcurrentHashMap<>();
+        final EventFinishedHandler countingHandler = event ->
+                handled.computeIfAbsent(event.eventId(), ignored -> new AtomicInteger()).incrementAndGet();
+
+        // when
+        try (var executor = Executors.newFixedThreadPool(4)) {
+            final List<Future<Integer>> drained = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final var concurrentWorker = new SettlementOutboxWorker(outbox, countingHandler, LEASE, Duration.ZERO, 3, 100);
+                drained.add(executor.submit(concurrentWorker::drain));
+            }
+            int total = 0;
+            for (Future<Integer> future : drained) total += future.get();
+
+            // then
+            assertThat(total).isEqualTo(40);
+        }
+        assertThat(handled).hasSize(40).allSatisfy((eventId, count) -> assertThat(count).hasValue(1));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM event_outcomes_log WHERE status = 'DONE'", Integer.class)).isEqualTo(40);
+    }
+
+    @Test
+    void shouldRetryFailedSettlementAndGiveUpAfterMaxAttempts() {
+        // given
+        outbox.enqueue(new EventFinished("GP-ERR", 44, OffsetDateTime.now()));
+        final var failingWorker = new SettlementOutboxWorker(outbox, event -> {
+            throw new IllegalStateException("settlement failed");
+        }, LEASE, Duration.ZERO, 2, 10);
+
+        // when
+        failingWorker.processNext();
+        final Settlement afterFirstAttempt = outbox.findByEventId("GP-ERR").get();
+        failingWorker.processNext();
+
+        // then
+        assertThat(afterFirstAttempt.status()).isEqualTo(SettlementStatus.PENDING);
+        assertThat(afterFirstAttempt.attempts()).isEqualTo(1);
+        assertThat(outbox.findByEventId("GP-ERR"))
+                .hasValueSatisfying(settlement -> {
+                    assertThat(settlement.status()).isEqualTo(SettlementStatus.FAILED);
+                    assertThat(settlement.attempts()).isEqualTo(2);
+                    assertThat(settlement.lastError()).contains("settlement failed");
+                });
+        assertThat(failingWorker.processNext()).isFalse();
+    }
+
+    private BigDecimal balanceOf(int userId) {
+        return jdbcTemplate.queryForObject("SELECT account_balance FROM accounts WHERE user_id = ?", BigDecimal.class, userId);
+    }
+}
@@ -4,6 +4,7 @@ import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
 import com.radoslawzorawicz.bettingapi.domain.events.model.Event;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
 import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
 import io.vavr.control.Either;
 import org.junit.jupiter.api.AfterAll;
@@ -18,17 +19,28 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.client.RestClient;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.vavr.api.VavrAssertions.assertThat;
 import static org.junit.jupiter.params.provider.Arguments.*;
 
 class F1ApiEventsRetrieverIT {
 
+    private static final OpenF1Properties.Queue NO_QUEUE = new OpenF1Properties.Queue(0, Duration.ZERO, Duration.ZERO, Duration.ZERO);
+
     private static WireMockServer f1ApiMock;
 
     @BeforeAll
@@ -49,9 +61,13 @@ class F1ApiEventsRetrieverIT {
     }
 
     private F1ApiEventsRetriever retriever(int maxAttempts) {
+        return retriever(maxAttempts, new OpenF1Properties.Rate(100, 1, "node", 0, 1, NO_QUEUE));
+    }
+
+    private F1ApiEventsRetriever retriever(int maxAttempts, OpenF1Properties.Rate rate) {
         final var props = new OpenF1Properties(
                 f1ApiMock.baseUrl(),
-                new OpenF1Properties.Rate(100, 1),
+                rate,
                 new OpenF1Properties.Retry(maxAttempts, 1, 2.0, 0.0, 10)
         );
         return new F1ApiEventsRetriever(RestClient.builder(), props);
@@ -158,6 +174,41 @@ class F1ApiEventsRetrieverIT {
         assertThat(result).containsOnLeft(RaceRetrievalError.RATE_LIMITED);
     }
 
+    @Test
+    void shouldRejectCallsOverBudgetAsRateLimitedWithoutCallingUpstream() {
+        // given
+        f1ApiMock.stubFor(get(urlPathEqualTo("/sessions")).willReturn(okJson("[]")));
+        final var retriever = retriever(1, new OpenF1Properties.Rate(2, 60, "node", 1, 1, NO_QUEUE));
+
+        // when
+        final var background = LookupPriority.BACKGROUND.run(() -> retriever.getEvents(2022, null, null));
+        final var user = retriever.getEvents(2023, null, null);
+        final var overBudget = retriever.getEvents(2024, null, null);
+
+        // then
+        assertThat(background).isRight();
+        assertThat(user).isRight();
+        assertThat(overBudget).containsOnLeft(RaceRetrievalError.RATE_LIMITED);
+        verify(2, getRequestedFor(urlPathEqualTo("/sessions")));
+    }
+
+    @Test
+    void shouldNotSpendUserReserveOnBackgroundCalls() {
+        // given
+        f1ApiMock.stubFor(get(urlPathEqualTo("/sessions")).willReturn(okJson("[]")));
+        final var retriever = retriever(1, new OpenF1Properties.Rate(2, 60, "node", 1, 1, NO_QUEUE));
+
+        // when
+        final var first = LookupPriority.BACKGROUND.run(() -> retriever.getEvents(2023, null, null));
+        final var second = LookupPriority.BACKGROUND.run(() -> retriever.getEvents(2024, null, null));
+        final var user = retriever.getEvents(2024, null, null);
+
+        // then
+        assertThat(first).isRight();
+        assertThat(second).containsOnLeft(RaceRetrievalError.RATE_LIMITED);
+        assertThat(user).isRight();
+    }
+
     @Test
     void shouldMap5xxToInternalFailure() {
         f1ApiMock.stubFor(get(urlPathEqualTo("/sessions"))
@@ -308,5 +359,86 @@ class F1ApiEventsRetrieverIT {
         verify(3, getRequestedFor(urlPathEqualTo("/sessions"))
                 .withQueryParam("session_type", equalTo("R")));
     }
-}
 
+    @Test
+    void shouldCoalesceConcurrentIdenticalCallsIntoSingleUpstreamRequest() throws Exception {
+        // given
+        f1ApiMock.stubFor(get(urlPathEqualTo("/drivers"))
+                .withQueryParam("session_key", equalTo("S1"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(2000)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                [ { "driverNumber": 1, "fullName": "Max", "teamName": "RB" } ]
+                                """)));
+
+        // when
+        final List<Either<RaceRetrievalError, List<Driver>>> results = callConcurrently(500, retriever(1), r -> r.getDrivers("S1"));
+
+        // then
+        assertThat(results).hasSize(500).allSatisfy(result ->
+                assertThat(result).containsOnRight(List.of(new Driver(1, "Max", "RB")))
+        );
+        verify(1, getRequestedFor(urlPathEqualTo("/drivers")).withQueryParam("session_key", equalTo("S1")));
+    }
+
+    @Test
+    void shouldShareErrorMappingOfCoalescedCall() throws Exception {
+        // given
+        f1ApiMock.stubFor(get(urlPathEqualTo("/drivers"))
+                .withQueryParam("session_key", equalTo("S1"))
+                .willReturn(aResponse().withStatus(429).withFixedDelay(2000)));
+
+        // when
+        final List<Either<RaceRetrievalError, List<Driver>>> results = callConcurrently(50, retriever(1), r -> r.getDrivers("S1"));
+
+        // then
+        assertThat(results).hasSize(50).allSatisfy(result ->
+                assertThat(result).containsOnLeft(RaceRetrievalError.RATE_LIMITED)
+        );
+        verify(1, getRequestedFor(urlPathEqualTo("/drivers")));
+    }
+
+    @Test
+    void shouldNotCoalesceCallsWithDifferentQueryParams() throws Exception {
+        // given
+        f1ApiMock.stubFor(get(urlPathEqualTo("/drivers"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(500)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[]")));
+        final var retriever = retriever(1);
+
+        // when
+        callConcurrently(2, retriever, r -> r.getDrivers("S1"));
+        callConcurrently(2, retriever, r -> r.getDrivers("S1", 44));
+
+        // then
+        verify(1, getRequestedFor(urlPathEqualTo("/drivers")).withQueryParam("driver_number", absent()));
+        verify(1, getRequestedFor(urlPathEqualTo("/drivers")).withQueryParam("driver_number", equalTo("44")));
+    }
+
+    private static <T> List<T> callConcurrently(int callers, F1ApiEventsRetriever retriever, Function<F1ApiEventsRetriever, T> call) throws Exception {
+        final var ready = new CountDownLatch(callers);
+        final var start = new CountDownLatch(1);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final List<Future<T>> futures = IntStream.range(0, callers)
+                    .mapToObj(ignored -> executor.submit(() -> {
+                        ready.countDown();
+                        start.await();
+                        return call.apply(retriever);
+                    }))
+                    .toList();
+            ready.await();
+            start.countDown();
+
+            final List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return results;
+        }
+    }
+}
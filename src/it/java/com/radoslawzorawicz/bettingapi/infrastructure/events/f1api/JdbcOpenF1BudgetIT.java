@@ -0,0 +1,102 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.settlement.outbox.worker-enabled=false"
+)
+@Testcontainers
+class JdbcOpenF1BudgetIT {
+
+    private static final int LIMIT = 10;
+    private static final int DAY_SECONDS = 86_400;
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void resetBudget() {
+        jdbcTemplate.update("UPDATE openf1_rate_budget SET period = 0, permits = 0");
+    }
+
+    @Test
+    void shouldShareOnePeriodBudgetAcrossNodes() {
+        // given
+        final var nodes = List.of(budget(0), budget(0), budget(0));
+
+        // when
+        int granted = 0;
+        for (int call = 0; call < 3 * LIMIT; call++) {
+            if (nodes.get(call % nodes.size()).tryAcquire(LookupPriority.BROWSING)) {
+                granted++;
+            }
+        }
+
+        // then
+        assertThat(granted).isEqualTo(LIMIT);
+        assertThat(permitsLeft()).isZero();
+    }
+
+    @Test
+    void shouldLeaveBackgroundReserveToUserCalls() {
+        // given
+        final var warmingNode = budget(4);
+        final var userNode = budget(4);
+
+        // when
+        int background = 0;
+        while (warmingNode.tryAcquire(LookupPriority.BACKGROUND)) {
+            background++;
+        }
+        int user = 0;
+        while (userNode.tryAcquire(LookupPriority.BROWSING)) {
+            user++;
+        }
+
+        // then
+        assertThat(background).isEqualTo(LIMIT - 4);
+        assertThat(user).isEqualTo(4);
+    }
+
+    @Test
+    void shouldStopAllNodesOnceBudgetIsDrained() {
+        // given
+        final var throttledNode = budget(0);
+        final var otherNode = budget(0);
+        throttledNode.tryAcquire(LookupPriority.BROWSING);
+
+        // when
+        throttledNode.drain();
+
+        // then
+        assertThat(throttledNode.tryAcquire(LookupPriority.BROWSING)).isFalse();
+        assertThat(otherNode.tryAcquire(LookupPriority.BROWSING)).isFalse();
+        assertThat(otherNode.tryAcquire(LookupPriority.BACKGROUND)).isFalse();
+    }
+
+    private JdbcOpenF1Budget budget(int backgroundReserve) {
+        return new JdbcOpenF1Budget(jdbcTemplate, new OpenF1Properties.Rate(LIMIT, DAY_SECONDS, "cluster", backgroundReserve, 3, null));
+    }
+
+    private int permitsLeft() {
+        return jdbcTemplate.queryForObject("SELECT permits FROM openf1_rate_budget WHERE name = 'openf1'", Integer.class);
+    }
+}
@@ -0,0 +1,156 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.control.Either;
+import org.eclipse.jetty.client.HttpClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.vavr.api.VavrAssertions.assertThat;
+
+class OpenF1HttpClientIT {
+
+    private static final int MAX_CONNECTIONS = 4;
+
+    private static WireMockServer f1ApiMock;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpClient httpClient;
+    private F1ApiEventsRetriever retriever;
+
+    @BeforeAll
+    static void start() {
+        f1ApiMock = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        f1ApiMock.start();
+        configureFor("localhost", f1ApiMock.port());
+    }
+
+    @AfterAll
+    static void stop() {
+        if (f1ApiMock != null) f1ApiMock.stop();
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final var httpProps = new OpenF1HttpProperties(
+                MAX_CONNECTIONS,
+                256,
+                Duration.ofSeconds(60),
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(5),
+                Map.of("drivers", Duration.ofMillis(300))
+        );
+        final var config = new OpenF1HttpClientConfig();
+        httpClient = config.openF1HttpClient(httpProps, new MockEnvironment(), meterRegistry);
+        final var props = new OpenF1Properties(
+                f1ApiMock.baseUrl(),
+                new OpenF1Properties.Rate(1000, 1, "node", 0, 1,
+                        new OpenF1Properties.Queue(0, Duration.ZERO, Duration.ZERO, Duration.ZERO)),
+                new OpenF1Properties.Retry(1, 1, 2.0, 0.0, 10)
+        );
+        retriever = new F1ApiEventsRetriever(
+                RestClient.builder().requestFactory(config.openF1RequestFactory(httpClient, httpProps)),
+                props
+        );
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.stop();
+        f1ApiMock.resetAll();
+    }
+
+    @Test
+    void shouldReuseOneKeepAliveConnectionForSequentialCalls() {
+        // given
+        stubDrivers(0);
+
+        // when
+        final var results = IntStream.range(0, 20).mapToObj(i -> retriever.getDrivers("S" + i)).toList();
+
+        // then
+        assertThat(results).allSatisfy(result -> assertThat(result).containsOnRight(List.of(new Driver(1, "Max", "RB"))));
+        verify(20, getRequestedFor(urlPathEqualTo("/drivers")).withHeader("Accept-Encoding", containing("gzip")));
+        assertThat(opened()).isEqualTo(1.0);
+        assertThat(connections("idle")).isEqualTo(1.0);
+        assertThat(connections("active")).isZero();
+    }
+
+    @Test
+    void shouldKeepBurstWithinConnectionPool() throws Exception {
+        // given
+        stubDrivers(100);
+
+        // when
+        final List<Future<Either<RaceRetrievalError, List<Driver>>>> calls;
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            calls = IntStream.range(0, 40)
+                    .mapToObj(i -> executor.submit(() -> retriever.getDrivers("S" + i)))
+                    .toList();
+        }
+
+        // then
+        for (var call : calls) {
+            assertThat(call.get()).containsOnRight(List.of(new Driver(1, "Max", "RB")));
+        }
+        verify(40, getRequestedFor(urlPathEqualTo("/drivers")));
+        assertThat(opened()).isLessThanOrEqualTo(MAX_CONNECTIONS);
+    }
+
+    @Test
+    void shouldApplyReadTimeoutOfRoute() {
+        // given
+        stubDrivers(1000);
+        f1ApiMock.stubFor(get(urlPathEqualTo("/sessions"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("[]")
+                        .withFixedDelay(1000)));
+
+        // when
+        final var drivers = retriever.getDrivers("S1");
+        final var sessions = retriever.getEvents(2024, null, null);
+
+        // then
+        assertThat(drivers).containsOnLeft(RaceRetrievalError.INTERNAL_FAILURE);
+        assertThat(sessions).containsOnRight(List.of());
+    }
+
+    private static void stubDrivers(int delayMs) {
+        f1ApiMock.stubFor(get(urlPathEqualTo("/drivers"))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("""
+                                [ { "driverNumber": 1, "fullName": "Max", "teamName": "RB" } ]
+                                """)
+                        .withFixedDelay(delayMs)));
+    }
+
+    private double opened() {
+        return meterRegistry.get("openf1.http.connections.opened").functionCounter().count();
+    }
+
+    private double connections(String state) {
+        return meterRegistry.get("openf1.http.connections").tag("state", state).gauge().value();
+    }
+}
@@ -0,0 +1,249 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Event;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceEventsReadRepository;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Snapshot;
+import io.vavr.control.Either;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.vavr.api.VavrAssertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.settlement.outbox.worker-enabled=false"
+)
+@Testcontainers
+class PersistedRaceEventsReadRepositoryIT {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+    private static final Duration REFRESH_AFTER = Duration.ofSeconds(30);
+    private static final Duration MAX_STALENESS = Duration.ofMinutes(10);
+    private static final Driver LEWIS = new Driver(44, "Lewis", "Mercedes");
+    private static final Driver MAX = new Driver(1, "Max", "RB");
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final RaceEventsReadRepository upstream = mock(RaceEventsReadRepository.class);
+
+    @BeforeEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE catalog_sessions, catalog_session_queries, catalog_driver_lists, catalog_drivers");
+    }
+
+    @Test
+    void shouldServeFinishedSessionsAndTheirDriversFromTablesAfterRestart() {
+        // given
+        final var finished = session("S1", NOW.minusSeconds(3600));
+        final var drivers = List.of(LEWIS, MAX);
+        given(upstream.getEvents(2024, null, "Race")).willReturn(Either.right(List.of(finished)));
+        given(upstream.getDrivers("S1")).willReturn(Either.right(drivers));
+        final var catalog = catalog(NOW);
+        catalog.getEvents(2024, null, "Race");
+        catalog.getDrivers("S1");
+
+        // when
+        final var restarted = catalog(NOW.plus(Duration.ofDays(30)));
+
+        // then
+        assertThat(restarted.getEvents(2024, null, "Race")).containsOnRight(List.of(finished));
+        assertThat(restarted.getDrivers("S1")).containsOnRight(drivers);
+        assertThat(restarted.getDrivers("S1", 1)).containsOnRight(List.of(MAX));
+        then(upstream).should(times(1)).getEvents(2024, null, "Race");
+        then(upstream).should(times(1)).getDrivers("S1");
+    }
+
+    @Test
+    void shouldReuseUpcomingSessionWithinRefreshAfterOfRestart() {
+        // given
+        final var upcoming = session("S2", NOW.plusSeconds(3600));
+        given(upstream.getEvents(2024, "Belgium", null)).willReturn(Either.right(List.of(upcoming)));
+        given(upstream.getDrivers("S2")).willReturn(Either.right(List.of()));
+        final var catalog = catalog(NOW);
+        catalog.getEvents(2024, "Belgium", null);
+        catalog.getDrivers("S2");
+
+        // when
+        final var restarted = catalog(NOW.plusSeconds(10));
+        final var sessions = restarted.getEvents(2024, "Belgium", null);
+        final var emptyDrivers = restarted.getDrivers("S2");
+
+        // then
+        assertThat(sessions).containsOnRight(List.of(upcoming));
+        assertThat(emptyDrivers).containsOnRight(List.of());
+        then(upstream).should(times(1)).getEvents(2024, "Belgium", null);
+        then(upstream).should(times(1)).getDrivers("S2");
+    }
+
+    @Test
+    void shouldServeStoredUpcomingSessionWithItsAgeAfterRestartPastRefreshAfter() {
+        // given
+        final var upcoming = session("S2", NOW.plusSeconds(3600));
+        given(upstream.getEvents(2024, "Belgium", null)).willReturn(Either.right(List.of(upcoming)));
+        given(upstream.getDrivers("S2")).willReturn(Either.right(List.of(LEWIS)));
+        final var catalog = catalog(NOW);
+        catalog.getEvents(2024, "Belgium", null);
+        catalog.getDrivers("S2");
+        final Duration age = REFRESH_AFTER.plusSeconds(1);
+
+        // when
+        final var restarted = catalog(NOW.plus(age));
+        final var sessions = restarted.getEventsSnapshot(2024, "Belgium", null);
+        final var drivers = restarted.getDriversSnapshot("S2");
+
+        // then
+        assertThat(sessions).containsOnRight(new Snapshot<>(List.of(upcoming), age));
+        assertThat(drivers).containsOnRight(new Snapshot<>(List.of(LEWIS), age));
+        then(upstream).should(times(1)).getEvents(2024, "Belgium", null);
+        then(upstream).should(times(1)).getDrivers("S2");
+    }
+
+    @Test
+    void shouldRefreshStoredCopyForBackgroundCallerAndKeepIt() {
+        // given
+        final var upcoming = session("S2", NOW.plusSeconds(3600));
+        final var rescheduled = session("S2", NOW.plusSeconds(7200));
+        given(upstream.getEvents(2024, "Belgium", null))
+                .willReturn(Either.right(List.of(upcoming)), Either.right(List.of(rescheduled)));
+        given(upstream.getDrivers("S2")).willReturn(Either.right(List.of(LEWIS)), Either.right(List.of(LEWIS, MAX)));
+        final var catalog = catalog(NOW);
+        catalog.getEvents(2024, "Belgium", null);
+        catalog.getDrivers("S2");
+        final Instant later = NOW.plus(REFRESH_AFTER).plusSeconds(1);
+        final var restarted = catalog(later);
+
+        // when
+        final var sessions = LookupPriority.BACKGROUND.run(() -> restarted.getEventsSnapshot(2024, "Belgium", null));
+        final var drivers = LookupPriority.BACKGROUND.run(() -> restarted.getDriversSnapshot("S2"));
+
+        // then
+        assertThat(sessions).containsOnRight(Snapshot.fresh(List.of(rescheduled)));
+        assertThat(drivers).containsOnRight(Snapshot.fresh(List.of(LEWIS, MAX)));
+        final var restartedAgain = catalog(later);
+        assertThat(restartedAgain.getEvents(2024, "Belgium", null)).containsOnRight(List.of(rescheduled));
+        assertThat(restartedAgain.getDrivers("S2")).containsOnRight(List.of(LEWIS, MAX));
+        then(upstream).should(times(2)).getEvents(2024, "Belgium", null);
+        then(upstream).should(times(2)).getDrivers("S2");
+    }
+
+    @Test
+    void shouldNotServeCopyOlderThanMaxStaleness() {
+        // given
+        given(upstream.getDrivers("S2"))
+                .willReturn(Either.right(List.of(LEWIS)), Either.left(RaceRetrievalError.INTERNAL_FAILURE));
+        catalog(NOW).getDrivers("S2");
+        final var restarted = catalog(NOW.plus(REFRESH_AFTER).plus(MAX_STALENESS).plusSeconds(1));
+
+        // when
+        final var drivers = restarted.getDriversSnapshot("S2");
+
+        // then
+        assertThat(drivers).containsOnLeft(RaceRetrievalError.INTERNAL_FAILURE);
+        then(upstream).should(times(2)).getDrivers("S2");
+    }
+
+    @Test
+    void shouldServeCopyStoredByOtherNodeWithoutCallingOpenF1() {
+        // given
+        final var upcoming = session("S2", NOW.plusSeconds(3600));
+        given(upstream.getEvents(2024, "Belgium", null)).willReturn(Either.right(List.of(upcoming)));
+        given(upstream.getDrivers("S2")).willReturn(Either.right(List.of(LEWIS)));
+        final var node = catalog(NOW);
+        final var otherNode = catalog(NOW);
+        otherNode.getEvents(2024, "Belgium", null);
+        otherNode.getDrivers("S2");
+
+        // when
+        final var sessions = node.getEvents(2024, "Belgium", null);
+        final var drivers = node.getDrivers("S2");
+
+        // then
+        assertThat(sessions).containsOnRight(List.of(upcoming));
+        assertThat(drivers).containsOnRight(List.of(LEWIS));
+        then(upstream).should(times(1)).getEvents(2024, "Belgium", null);
+        then(upstream).should(times(1)).getDrivers("S2");
+    }
+
+    @Test
+    void shouldRefreshStaleCopyFromNewerCopyOfOtherNode() {
+        // given
+        given(upstream.getDrivers("S2")).willReturn(Either.right(List.of(LEWIS)), Either.right(List.of(LEWIS, MAX)));
+        catalog(NOW).getDrivers("S2");
+        final Instant later = NOW.plus(REFRESH_AFTER).plusSeconds(1);
+        final var node = catalog(later);
+        final var otherNode = catalog(later);
+        LookupPriority.BACKGROUND.run(() -> otherNode.getDrivers("S2"));
+
+        // when
+        final var stale = node.getDrivers("S2");
+        final var refreshed = LookupPriority.BACKGROUND.run(() -> node.getDrivers("S2"));
+
+        // then
+        assertThat(stale).containsOnRight(List.of(LEWIS));
+        assertThat(refreshed).containsOnRight(List.of(LEWIS, MAX));
+        then(upstream).should(times(2)).getDrivers("S2");
+    }
+
+    @Test
+    void shouldKeepSessionListOfUnfilteredQuery() {
+        // given
+        final var finished = session("S3", NOW.minusSeconds(60));
+        given(upstream.getEvents(null, null, null)).willReturn(Either.right(List.of(finished)));
+        catalog(NOW).getEvents(null, null, null);
+
+        // when
+        final var result = catalog(NOW.plusSeconds(60)).getEvents(null, null, null);
+
+        // then
+        assertThat(result).containsOnRight(List.of(finished));
+        then(upstream).should(times(1)).getEvents(null, null, null);
+    }
+
+    private PersistedRaceEventsReadRepository catalog(Instant now) {
+        final var catalog = new PersistedRaceEventsReadRepository(
+                upstream,
+                jdbcTemplate,
+                new TransactionTemplate(transactionManager),
+                REFRESH_AFTER,
+                MAX_STALENESS,
+                Clock.fixed(now, ZoneOffset.UTC)
+        );
+        catalog.load();
+        return catalog;
+    }
+
+    private static Event session(String sessionKey, Instant end) {
+        final OffsetDateTime endTime = end.atOffset(ZoneOffset.UTC);
+        return new Event(sessionKey, "Race", "Race", 2024, "Belgium", endTime.minusHours(2), endTime);
+    }
+}
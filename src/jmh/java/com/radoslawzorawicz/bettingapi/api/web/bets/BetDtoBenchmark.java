@@ -0,0 +1,56 @@
+package com.radoslawzorawicz.bettingapi.api.web.bets;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BetDtoBenchmark {
+    private static final int PAGE_SIZE = 50;
+
+    private Bet bet;
+    private BetDto dto;
+    private List<BetDto> page;
+    private ObjectWriter betWriter;
+    private ObjectWriter pageWriter;
+
+    @Setup
+    public void setUp() {
+        // same naming strategy as spring.jackson.property-naming-strategy in application.yml
+        final ObjectMapper objectMapper = new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        bet = new Bet(10, "9158", 44, 7, Money.of(new BigDecimal("12.35")), Bet.BetStatus.PENDING, 3);
+        dto = BetDto.toDto(bet);
+        page = IntStream.range(0, PAGE_SIZE).mapToObj(i -> BetDto.toDto(bet.withId(i))).toList();
+        betWriter = objectMapper.writerFor(BetDto.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, BetDto.class));
+    }
+
+    @Benchmark
+    public BetDto toDto() {
+        return BetDto.toDto(bet);
+    }
+
+    @Benchmark
+    public byte[] serializeBet() throws JsonProcessingException {
+        return betWriter.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,43 @@
+package com.radoslawzorawicz.bettingapi.domain.accounts;
+
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import io.vavr.control.Option;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AccountBenchmark {
+
+    private Account account;
+    private Money stake;
+    private Money tooMuch;
+
+    @Setup
+    public void setUp() {
+        account = new Account(1, 1, Money.of(new BigDecimal("100.00")));
+        stake = Money.of(new BigDecimal("12.35"));
+        tooMuch = Money.of(new BigDecimal("100.01"));
+    }
+
+    @Benchmark
+    public Option<Account> debit() {
+        return account.debit(stake);
+    }
+
+    @Benchmark
+    public Option<Account> debitInsufficientFunds() {
+        return account.debit(tooMuch);
+    }
+
+    @Benchmark
+    public Account credit() {
+        return account.credit(stake);
+    }
+}
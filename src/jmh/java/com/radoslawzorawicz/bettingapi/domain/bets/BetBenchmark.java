@@ -0,0 +1,44 @@
+package com.radoslawzorawicz.bettingapi.domain.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BetBenchmark {
+    private static final Integer WINNER = 44;
+
+    private Bet pendingWinner;
+    private Bet pendingLoser;
+    private Bet settled;
+
+    @Setup
+    public void setUp() {
+        final Money amount = Money.of(new BigDecimal("12.35"));
+        pendingWinner = new Bet(1, "E1", 44, 1, amount, Bet.BetStatus.PENDING, 3);
+        pendingLoser = new Bet(2, "E1", 16, 1, amount, Bet.BetStatus.PENDING, 3);
+        settled = new Bet(3, "E1", 44, 1, amount, Bet.BetStatus.WON, 3);
+    }
+
+    @Benchmark
+    public Bet resolveWinner() {
+        return pendingWinner.resolveByDriverId(WINNER);
+    }
+
+    @Benchmark
+    public Bet resolveLoser() {
+        return pendingLoser.resolveByDriverId(WINNER);
+    }
+
+    @Benchmark
+    public Bet resolveAlreadySettled() {
+        return settled.resolveByDriverId(WINNER);
+    }
+}
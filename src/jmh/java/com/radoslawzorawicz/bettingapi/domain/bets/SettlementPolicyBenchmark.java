@@ -0,0 +1,82 @@
+package com.radoslawzorawicz.bettingapi.domain.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SettlementPolicyBenchmark {
+    private static final Integer WINNER = 44;
+    private static final int[] DRIVERS = {1, 4, 11, 14, 16, 44, 55, 63, 81};
+    private static final int USERS = 50_000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int bets;
+
+    private final SettlementPolicy policy = new SettlementPolicy();
+    private ForkJoinPool pool;
+    private SettlementPolicy parallelPolicy;
+    private List<Bet> pending;
+    private List<Bet> resolved;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final SplittableRandom random = new SplittableRandom(42);
+        pending = IntStream.range(0, bets)
+                .mapToObj(i -> new Bet(
+                        i,
+                        "E1",
+                        DRIVERS[random.nextInt(DRIVERS.length)],
+                        1 + random.nextInt(USERS),
+                        Money.of(BigDecimal.valueOf(1 + random.nextInt(10_000), 2)),
+                        Bet.BetStatus.PENDING,
+                        2 + random.nextInt(3)
+                ))
+                .toList();
+        resolved = policy.resolve(pending, WINNER);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        parallelPolicy = new SettlementPolicy(pool, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Bet> resolve() {
+        return policy.resolve(pending, WINNER);
+    }
+
+    @Benchmark
+    public List<Bet> resolveParallel() {
+        return parallelPolicy.resolve(pending, WINNER);
+    }
+
+    @Benchmark
+    public UserPayouts payoutsByUser() {
+        return policy.payoutsByUser(resolved);
+    }
+
+    @Benchmark
+    public UserPayouts payoutsByUserParallel() {
+        return parallelPolicy.payoutsByUser(resolved);
+    }
+
+    @Benchmark
+    public Map<Integer, Money> creditsByUser() {
+        return policy.creditsByUser(resolved);
+    }
+}
@@ -0,0 +1,56 @@
+package com.radoslawzorawicz.bettingapi.domain.shared;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private static final int PAYOUTS = 1_000;
+
+    private Money balance;
+    private Money stake;
+    private Money[] stakes;
+
+    @Setup
+    public void setUp() {
+        balance = Money.of(new BigDecimal("1250.75"));
+        stake = Money.of(new BigDecimal("12.35"));
+        stakes = new Money[PAYOUTS];
+        for (int i = 0; i < PAYOUTS; i++) {
+            stakes[i] = Money.of(BigDecimal.valueOf(100 + i, 2));
+        }
+    }
+
+    @Benchmark
+    public Money add() {
+        return balance.add(stake);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return balance.subtract(stake);
+    }
+
+    @Benchmark
+    public Money multiply() {
+        return stake.multiply(3);
+    }
+
+    // stake * odds summed the way payouts are aggregated; score is per 1000 payouts
+    @Benchmark
+    public Money sumPayouts() {
+        Money total = Money.zero();
+        for (Money payoutStake : stakes) {
+            total = total.add(payoutStake.multiply(3));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,102 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import com.radoslawzorawicz.bettingapi.BettingApplication;
+import com.radoslawzorawicz.bettingapi.application.accounts.BetsSettlementService;
+import com.radoslawzorawicz.bettingapi.application.accounts.SettlementEngine;
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.SettlementPolicy;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settles one event with the set-based SQL engine or the entity-by-entity JPA engine against Postgres in a
+ * container. Every iteration settles a freshly seeded event once, so the score is the time of a whole run.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SettlementEnginesBenchmark {
+    private static final String EVENT_ID = "GP-1";
+    private static final int WINNER = 44;
+    private static final int USERS = 200;
+
+    @Param({"sql", "jpa"})
+    public String engine;
+
+    @Param({"20000", "100000"})
+    public int bets;
+
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transaction;
+    private SettlementEngine settlementEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:17");
+        postgres.start();
+        context = new SpringApplicationBuilder(BettingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "app.settlement.outbox.worker-enabled=false"
+                )
+                .run();
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        final PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        transaction = new TransactionTemplate(transactionManager);
+        settlementEngine = switch (engine) {
+            case "sql" -> new SqlSettlementEngine(
+                    jdbcTemplate, new TransactionTemplate(transactionManager), 5_000, SqlSettlementEngine.CreditTarget.ACCOUNTS);
+            case "jpa" -> new BetsSettlementService(
+                    context.getBean(BetRepository.class), context.getBean(AccountRepository.class), new SettlementPolicy());
+            default -> throw new IllegalArgumentException("Unknown engine " + engine);
+        };
+    }
+
+    @Setup(Level.Iteration)
+    public void seed() {
+        jdbcTemplate.execute("TRUNCATE bets, accounts, settlement_checkpoints RESTART IDENTITY");
+        jdbcTemplate.update("""
+                INSERT INTO accounts (user_id, account_balance)
+                SELECT u, 100 + u / 7.0 FROM generate_series(1, ?) AS u
+                """, USERS);
+        jdbcTemplate.update("""
+                INSERT INTO bets (amount, event_id, driver_id, user_id, status, odds)
+                SELECT ((i % 997) + 1) / 100.0,
+                       CASE WHEN i % 50 = 0 THEN 'GP-2' ELSE 'GP-1' END,
+                       CASE i % 4 WHEN 0 THEN 44 WHEN 1 THEN 1 WHEN 2 THEN 16 ELSE 44 END,
+                       1 + i % ?,
+                       'PENDING',
+                       2 + i % 3
+                FROM generate_series(1, ?) AS i
+                """, USERS, bets);
+        jdbcTemplate.execute("ANALYZE bets");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public void settle() {
+        transaction.executeWithoutResult(ignored -> settlementEngine.settle(EVENT_ID, WINNER));
+    }
+}
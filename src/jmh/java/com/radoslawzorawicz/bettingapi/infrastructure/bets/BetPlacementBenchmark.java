@@ -0,0 +1,97 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import com.radoslawzorawicz.bettingapi.BettingApplication;
+import com.radoslawzorawicz.bettingapi.application.bets.TransactionalBetPlacementWriter;
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import io.vavr.control.Either;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places single bets from 64 concurrent callers against Postgres in a container, either one transaction per bet or
+ * through the group-commit writer. Pass {@code -bm sample} to get latency percentiles instead of throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(64)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BetPlacementBenchmark {
+    private static final int USERS = 1_000;
+    private static final PlaceBetCommand COMMAND = new PlaceBetCommand("GP-1", 44, new BigDecimal("1.00"));
+
+    @Param({"transactional", "group-commit"})
+    public String mode;
+
+    private final AtomicInteger placements = new AtomicInteger();
+    private PostgreSQLContainer<?> postgres;
+    private ConfigurableApplicationContext context;
+    private TransactionalBetPlacementWriter delegate;
+    private TransactionTemplate transaction;
+    private GroupCommitBetPlacementWriter groupCommit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:17");
+        postgres.start();
+        context = new SpringApplicationBuilder(BettingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "app.settlement.outbox.worker-enabled=false"
+                )
+                .run();
+        final JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("TRUNCATE bets, accounts RESTART IDENTITY");
+        jdbcTemplate.update("""
+                INSERT INTO accounts (user_id, account_balance)
+                SELECT u, 1000000000 FROM generate_series(1, ?) AS u
+                """, USERS);
+        delegate = new TransactionalBetPlacementWriter(
+                context.getBean(AccountRepository.class), context.getBean(BetRepository.class));
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        switch (mode) {
+            case "transactional" -> { }
+            case "group-commit" -> {
+                groupCommit = new GroupCommitBetPlacementWriter(delegate, transaction, 4, 1_024, 64, 2);
+                groupCommit.start();
+            }
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        if (groupCommit != null) {
+            groupCommit.close();
+        }
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Either<BetPlacementError, Integer> place() {
+        final int userId = 1 + Math.floorMod(placements.getAndIncrement(), USERS);
+        if (groupCommit != null) {
+            return groupCommit.write(userId, COMMAND, 2);
+        }
+        return transaction.execute(ignored -> delegate.write(userId, COMMAND, 2));
+    }
+}
@@ -0,0 +1,16 @@
+package com.radoslawzorawicz.bettingapi.api.web.bets;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import io.vavr.control.Either;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record BetSlipItemDto(
+        Integer betId,
+        BetPlacementError error
+) {
+
+    static BetSlipItemDto of(Either<BetPlacementError, Integer> result) {
+        return result.fold(error -> new BetSlipItemDto(null, error), betId -> new BetSlipItemDto(betId, null));
+    }
+}
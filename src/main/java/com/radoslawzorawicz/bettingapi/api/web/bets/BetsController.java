@@ -1,31 +1,90 @@
 package com.radoslawzorawicz.bettingapi.api.web.bets;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.radoslawzorawicz.bettingapi.application.bets.BetsApplicationService;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQuery;
 import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import static com.radoslawzorawicz.bettingapi.domain.bets.Bet.BetStatus;
+
 @RestController
 @RequestMapping("/bets")
-@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 @Validated
 class BetsController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final String INVALID_PAGE = "INVALID_PAGE";
+
     private final BetsApplicationService betsService;
+    private final ObjectWriter ndjsonRowWriter;
+
+    BetsController(BetsApplicationService betsService, ObjectMapper objectMapper) {
+        this.betsService = betsService;
+        this.ndjsonRowWriter = objectMapper.writerFor(BetDto.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
 
     @GetMapping
-    ResponseEntity<?> getBets(@RequestHeader("X-USER-ID") Integer userId) {
-        final var bets = betsService.getBets(userId)
+    ResponseEntity<?> getBets(
+            @RequestHeader("X-USER-ID") Integer userId,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) BetStatus status,
+            @RequestParam(name = "event_id", required = false) String eventId
+    ) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE || !isValidCursor(after)) {
+            final var problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, INVALID_PAGE);
+            return ResponseEntity.status(problemDetail.getStatus()).body(problemDetail);
+        }
+        final var page = betsService.getBets(new BetQuery(userId, status, eventId, after), limit);
+        final var bets = page.bets()
                 .stream()
                 .map(BetDto::toDto)
                 .toList();
-        return ResponseEntity.ok(bets);
+        final var response = ResponseEntity.ok();
+        page.nextCursor().forEach(cursor -> response.header(NEXT_CURSOR_HEADER, cursor.toString()));
+        return response.body(bets);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    void streamBets(
+            @RequestHeader("X-USER-ID") Integer userId,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(required = false) BetStatus status,
+            @RequestParam(name = "event_id", required = false) String eventId,
+            HttpServletResponse response
+    ) throws IOException {
+        if (!isValidCursor(after)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, INVALID_PAGE);
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        final OutputStream out = response.getOutputStream();
+        betsService.streamBets(
+                new BetQuery(userId, status, eventId, after),
+                bet -> Try.run(() -> {
+                    ndjsonRowWriter.writeValue(out, BetDto.toDto(bet));
+                    out.write('\n');
+                }).get()
+        );
+        out.flush();
     }
 
     @PostMapping
@@ -33,8 +92,7 @@ class BetsController {
             @RequestHeader("X-USER-ID") Integer userId,
             @Valid @RequestBody PlaceBetRequest request
     ) {
-        final var placeBetCommand = new PlaceBetCommand(request.eventId(), request.driverId(), request.betAmount());
-        return betsService.placeBet(userId, placeBetCommand)
+        return betsService.placeBet(userId, request.toCommand())
                 .mapLeft(this::errorToHttpStatus)
                 .map(BetCreatedDto::new)
                 .fold(
@@ -43,11 +101,47 @@ class BetsController {
                 );
     }
 
+    @PostMapping("/batch")
+    ResponseEntity<?> placeBets(
+            @RequestHeader("X-USER-ID") Integer userId,
+            @Valid @RequestBody PlaceBetSlipRequest request
+    ) {
+        final List<PlaceBetCommand> commands = request.bets()
+                .stream()
+                .map(PlaceBetRequest::toCommand)
+                .toList();
+        final var results = betsService.placeBets(userId, commands, request.allOrNothing());
+        final var items = results.stream()
+                .map(BetSlipItemDto::of)
+                .toList();
+        if (results.stream().allMatch(Either::isRight)) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(items);
+        }
+        if (!request.allOrNothing()) {
+            return ResponseEntity.ok(items);
+        }
+        final BetPlacementError cause = results.stream()
+                .filter(Either::isLeft)
+                .map(Either::getLeft)
+                .filter(error -> error != BetPlacementError.SLIP_REJECTED)
+                .findFirst()
+                .orElse(BetPlacementError.SLIP_REJECTED);
+        final var problemDetail = errorToHttpStatus(cause);
+        problemDetail.setProperty("bets", items);
+        return ResponseEntity.status(problemDetail.getStatus()).body(problemDetail);
+    }
+
+    private static boolean isValidCursor(Integer after) {
+        return after == null || after > 0;
+    }
+
     private ProblemDetail errorToHttpStatus(BetPlacementError error) {
         final var httpStatus = switch (error) {
             case ACCOUNT_NOT_FOUND, DRIVER_MARKET_NOT_FOUND -> HttpStatus.BAD_REQUEST;
             case INSUFFICIENT_FUNDS -> HttpStatus.PAYMENT_REQUIRED;
             case INTERNAL_ERROR -> HttpStatus.INTERNAL_SERVER_ERROR;
+            case PLACEMENT_QUEUE_FULL -> HttpStatus.SERVICE_UNAVAILABLE;
+            case SLIP_REJECTED -> HttpStatus.CONFLICT;
         };
         return ProblemDetail.forStatusAndDetail(httpStatus, error.name());
     }
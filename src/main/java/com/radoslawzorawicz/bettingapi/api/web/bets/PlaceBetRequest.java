@@ -1,5 +1,6 @@
 package com.radoslawzorawicz.bettingapi.api.web.bets;
 
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
 import jakarta.validation.constraints.*;
 
 import java.math.BigDecimal;
@@ -17,4 +18,8 @@ record PlaceBetRequest(
         @Digits(integer = 12, fraction = 2)
         BigDecimal betAmount
 ) {
+
+    PlaceBetCommand toCommand() {
+        return new PlaceBetCommand(eventId, driverId, betAmount);
+    }
 }
@@ -0,0 +1,17 @@
+package com.radoslawzorawicz.bettingapi.api.web.bets;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+record PlaceBetSlipRequest(
+        @NotEmpty
+        @Size(max = 100)
+        List<@Valid @NotNull PlaceBetRequest> bets,
+
+        boolean allOrNothing
+) {
+}
@@ -3,15 +3,20 @@ package com.radoslawzorawicz.bettingapi.api.web.events;
 import com.radoslawzorawicz.bettingapi.application.events.EventsApplicationService;
 import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
 import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementError;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Snapshot;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
 
 
 @RestController
@@ -27,21 +32,21 @@ class EventsController {
             @RequestParam(value = "country", required = false) String country,
             @RequestParam(value = "session_type", required = false) String sessionType
     ) {
-        return eventsService.getEvents(year, country, sessionType)
+        return eventsService.getEventsSnapshot(year, country, sessionType)
                 .mapLeft(this::toHttpStatus)
                 .fold(
                         problemDetail -> ResponseEntity.status(problemDetail.getStatus()).body(problemDetail),
-                        ResponseEntity::ok
+                        EventsController::withAge
                 );
     }
 
     @GetMapping("/{session_id}/drivers_market")
     ResponseEntity<?> getDriversMarket(@PathVariable("session_id") @NotBlank String sessionId) {
-        return eventsService.getDriversMarket(sessionId)
+        return eventsService.getDriversMarketSnapshot(sessionId)
                 .mapLeft(this::toHttpStatus)
                 .fold(
                         problemDetail -> ResponseEntity.status(problemDetail.getStatus()).body(problemDetail),
-                        ResponseEntity::ok
+                        EventsController::withAge
                 );
     }
 
@@ -54,10 +59,31 @@ class EventsController {
                 .mapLeft(this::toHttpStatus)
                 .fold(
                         problemDetail -> ResponseEntity.status(problemDetail.getStatus()).body(problemDetail),
-                        ignored -> ResponseEntity.ok().build()
+                        ignored -> ResponseEntity.accepted().location(settlementLocation(eventId)).build()
                 );
     }
 
+    @GetMapping("/{event_id}/settlement")
+    ResponseEntity<?> getSettlement(@PathVariable("event_id") @NotBlank String eventId) {
+        return eventsService.getSettlement(eventId)
+                .map(SettlementDto::toDto)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .getOrElse(() -> {
+                    final var problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, "SETTLEMENT_NOT_FOUND");
+                    return ResponseEntity.status(problemDetail.getStatus()).body(problemDetail);
+                });
+    }
+
+    private static ResponseEntity<?> withAge(Snapshot<?> snapshot) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, Long.toString(snapshot.age().toSeconds()))
+                .body(snapshot.value());
+    }
+
+    private static URI settlementLocation(String eventId) {
+        return UriComponentsBuilder.fromPath("/events/{event_id}/settlement").buildAndExpand(eventId).toUri();
+    }
+
     private ProblemDetail toHttpStatus(RaceRetrievalError error) {
         final var httpStatus = switch (error) {
             case QUERY_TOO_BROAD -> HttpStatus.UNPROCESSABLE_ENTITY;
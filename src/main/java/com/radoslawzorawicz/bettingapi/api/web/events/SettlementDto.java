@@ -0,0 +1,29 @@
+package com.radoslawzorawicz.bettingapi.api.web.events;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.Settlement;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementStatus;
+
+import java.time.OffsetDateTime;
+
+record SettlementDto(
+        String eventId,
+        Integer winningDriverId,
+        SettlementStatus status,
+        int attempts,
+        String lastError,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {
+
+    static SettlementDto toDto(Settlement settlement) {
+        return new SettlementDto(
+                settlement.eventId(),
+                settlement.winningDriverId(),
+                settlement.status(),
+                settlement.attempts(),
+                settlement.lastError(),
+                settlement.createdAt(),
+                settlement.updatedAt()
+        );
+    }
+}
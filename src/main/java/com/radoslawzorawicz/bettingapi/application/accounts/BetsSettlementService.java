@@ -5,23 +5,23 @@ import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.SettlementPolicy;
-import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import com.radoslawzorawicz.bettingapi.domain.bets.UserPayouts;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 
 import java.util.List;
-import java.util.Map;
 
 
 @RequiredArgsConstructor
 @Log4j2
-public class BetsSettlementService {
+public class BetsSettlementService implements SettlementEngine {
 
     private final BetRepository betRepository;
     private final AccountRepository accountRepository;
     private final SettlementPolicy settlementPolicy;
 
+    @Override
     @Transactional
     public void settle(String eventId, Integer winningDriverId) {
         final List<Bet> pendingBets = betRepository.findAllByEventIdAndStatus(eventId, Bet.BetStatus.PENDING);
@@ -33,20 +33,17 @@ public class BetsSettlementService {
         final List<Bet> statusUpdatedBets = settlementPolicy.resolve(pendingBets, winningDriverId);
         betRepository.saveAll(statusUpdatedBets);
 
-        final Map<Integer, Money> payoutByUserId = settlementPolicy.creditsByUser(statusUpdatedBets);
+        final UserPayouts payouts = settlementPolicy.payoutsByUser(statusUpdatedBets);
 
-        final List<Account> winnerAccounts = accountRepository.findAllByUserIdIn(payoutByUserId.keySet());
-        final List<Account> updatedWinnerAccounts = updateWinnerAccountsBalance(winnerAccounts, payoutByUserId);
+        final List<Account> winnerAccounts = accountRepository.findAllByUserIdIn(payouts.userIds());
+        final List<Account> updatedWinnerAccounts = updateWinnerAccountsBalance(winnerAccounts, payouts);
 
         accountRepository.saveAll(updatedWinnerAccounts);
     }
 
-    private List<Account> updateWinnerAccountsBalance(List<Account> winnerAccounts, Map<Integer, Money> payoutByUserId) {
+    private List<Account> updateWinnerAccountsBalance(List<Account> winnerAccounts, UserPayouts payouts) {
         return winnerAccounts.stream()
-                .map(account -> {
-                    final Money payout = payoutByUserId.get(account.userId());
-                    return account.credit(payout);
-                })
+                .map(account -> account.credit(payouts.payoutOf(account.userId())))
                 .toList();
     }
 }
@@ -7,11 +7,11 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class EventFinishedTransactionalHandler implements EventFinishedHandler {
 
-    private final BetsSettlementService betsSettlementService;
+    private final SettlementEngine settlementEngine;
 
 
     @Override
     public void handle(EventFinished event) {
-        betsSettlementService.settle(event.eventId(), event.winningDriverId());
+        settlementEngine.settle(event.eventId(), event.winningDriverId());
     }
 }
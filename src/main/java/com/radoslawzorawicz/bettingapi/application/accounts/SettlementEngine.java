@@ -0,0 +1,5 @@
+package com.radoslawzorawicz.bettingapi.application.accounts;
+
+public interface SettlementEngine {
+    void settle(String eventId, Integer winningDriverId);
+}
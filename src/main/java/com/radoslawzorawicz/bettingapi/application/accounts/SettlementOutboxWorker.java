@@ -0,0 +1,45 @@
+package com.radoslawzorawicz.bettingapi.application.accounts;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinished;
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinishedHandler;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
+import io.vavr.control.Try;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Duration;
+
+// Settlement only touches pending bets, so running an event again after a lost acknowledgement pays nobody twice
+@RequiredArgsConstructor
+@Log4j2
+public class SettlementOutboxWorker {
+    private final SettlementOutbox outbox;
+    private final EventFinishedHandler handler;
+    private final Duration lease;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+    private final int batchSize;
+
+    public int drain() {
+        int processed = 0;
+        while (processed < batchSize && processNext()) {
+            processed++;
+        }
+        return processed;
+    }
+
+    public boolean processNext() {
+        return outbox.claimNext(lease)
+                .peek(this::settle)
+                .isDefined();
+    }
+
+    private void settle(EventFinished event) {
+        Try.run(() -> handler.handle(event))
+                .onSuccess(ignored -> outbox.markDone(event.eventId()))
+                .onFailure(error -> {
+                    log.error("Settlement of event {} failed", event.eventId(), error);
+                    outbox.markFailed(event.eventId(), error.toString(), maxAttempts, retryDelay);
+                });
+    }
+}
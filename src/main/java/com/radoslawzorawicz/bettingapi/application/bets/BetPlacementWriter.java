@@ -0,0 +1,16 @@
+package com.radoslawzorawicz.bettingapi.application.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import io.vavr.control.Either;
+
+import java.util.List;
+
+public interface BetPlacementWriter {
+    Either<BetPlacementError, Integer> write(Integer userId, PlaceBetCommand command, Integer odds);
+
+    /**
+     * Debits the total stake once and inserts all bets, or none of them. Ids are returned in input order.
+     */
+    Either<BetPlacementError, List<Integer>> writeAll(Integer userId, List<PricedBet> bets);
+}
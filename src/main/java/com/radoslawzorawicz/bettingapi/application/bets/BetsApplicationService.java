@@ -1,14 +1,21 @@
 package com.radoslawzorawicz.bettingapi.application.bets;
 
 import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPage;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQuery;
 import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
 import io.vavr.control.Either;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BetsApplicationService {
     Either<BetPlacementError, Integer> placeBet(Integer userId, PlaceBetCommand request);
 
-    List<Bet> getBets(Integer userId);
+    List<Either<BetPlacementError, Integer>> placeBets(Integer userId, List<PlaceBetCommand> requests, boolean allOrNothing);
+
+    BetPage getBets(BetQuery query, int limit);
+
+    void streamBets(BetQuery query, Consumer<Bet> action);
 }
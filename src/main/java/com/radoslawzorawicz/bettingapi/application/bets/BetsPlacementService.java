@@ -1,64 +1,115 @@
 package com.radoslawzorawicz.bettingapi.application.bets;
 
 import com.radoslawzorawicz.bettingapi.application.events.EventsApplicationService;
-import com.radoslawzorawicz.bettingapi.domain.accounts.Account;
-import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPage;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
-import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQuery;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQueryRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
-import com.radoslawzorawicz.bettingapi.domain.events.model.DriverMarket;
-import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import com.radoslawzorawicz.bettingapi.domain.events.model.MarketOdds;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
 import io.vavr.control.Either;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.collections4.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+// The market is resolved before the writer opens its transaction, so the OpenF1 round trip never holds a
+// pooled connection
 @RequiredArgsConstructor
 public class BetsPlacementService implements BetsApplicationService {
-    private final AccountRepository accountRepository;
-    private final BetRepository betRepository;
+    private final BetQueryRepository betQueryRepository;
     private final EventsApplicationService eventsApplicationService;
+    private final BetPlacementWriter placementWriter;
 
-
-    @Transactional
     @Override
     public Either<BetPlacementError, Integer> placeBet(Integer userId, PlaceBetCommand request) {
-        return eventsApplicationService.getDriverMarket(request.eventId(), request.driverId())
-                .mapLeft(ignored -> BetPlacementError.INTERNAL_ERROR)
-                .filterOrElse(CollectionUtils::isNotEmpty, ignored -> BetPlacementError.DRIVER_MARKET_NOT_FOUND)
-                .map(List::getFirst)
-                .map(DriverMarket::odds)
-                .flatMap(odds -> placeBetIfSufficientBalance(userId, request, odds));
+        return resolveOdds(request)
+                .flatMap(odds -> placementWriter.write(userId, request, odds));
+    }
+
+    @Override
+    public List<Either<BetPlacementError, Integer>> placeBets(Integer userId,
+                                                             List<PlaceBetCommand> requests,
+                                                             boolean allOrNothing) {
+        final Map<String, Either<BetPlacementError, MarketOdds>> markets = resolveMarkets(requests);
+        final List<Either<BetPlacementError, Integer>> odds = requests.stream()
+                .map(request -> markets.get(request.eventId()).flatMap(market -> oddsOf(market, request)))
+                .toList();
+        if (allOrNothing && odds.stream().anyMatch(Either::isLeft)) {
+            return rejectPriced(odds);
+        }
+
+        final List<PricedBet> priced = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            final PlaceBetCommand request = requests.get(i);
+            odds.get(i).forEach(value -> priced.add(new PricedBet(request, value)));
+        }
+        if (priced.isEmpty()) {
+            return odds;
+        }
+
+        final Either<BetPlacementError, List<Integer>> written = placementWriter.writeAll(userId, priced);
+        if (written.isLeft() && written.getLeft() == BetPlacementError.INSUFFICIENT_FUNDS && !allOrNothing) {
+            final Iterator<PricedBet> remaining = priced.iterator();
+            return odds.stream()
+                    .map(result -> result.flatMap(ignored -> {
+                        final PricedBet bet = remaining.next();
+                        return placementWriter.write(userId, bet.command(), bet.odds());
+                    }))
+                    .toList();
+        }
+        final Iterator<Either<BetPlacementError, Integer>> betIds = written
+                .fold(error -> Collections.nCopies(priced.size(), Either.<BetPlacementError, Integer>left(error)),
+                        ids -> ids.stream().map(Either::<BetPlacementError, Integer>right).toList())
+                .iterator();
+        return odds.stream()
+                .map(result -> result.isLeft() ? result : betIds.next())
+                .toList();
     }
 
     @Override
-    public List<Bet> getBets(Integer userId) {
-        return betRepository.findAllByUserIdOrderByIdDesc(userId);
+    public BetPage getBets(BetQuery query, int limit) {
+        return betQueryRepository.findPage(query, limit);
+    }
+
+    @Override
+    public void streamBets(BetQuery query, Consumer<Bet> action) {
+        betQueryRepository.forEach(query, action);
+    }
+
+    private Either<BetPlacementError, Integer> resolveOdds(PlaceBetCommand request) {
+        return resolveMarket(request.eventId()).flatMap(market -> oddsOf(market, request));
+    }
+
+    private Either<BetPlacementError, MarketOdds> resolveMarket(String eventId) {
+        return LookupPriority.PLACEMENT
+                .run(() -> eventsApplicationService.getMarketOdds(eventId))
+                .mapLeft(ignored -> BetPlacementError.INTERNAL_ERROR);
+    }
+
+    private Map<String, Either<BetPlacementError, MarketOdds>> resolveMarkets(List<PlaceBetCommand> requests) {
+        final Map<String, Either<BetPlacementError, MarketOdds>> markets = new HashMap<>();
+        for (PlaceBetCommand request : requests) {
+            markets.computeIfAbsent(request.eventId(), this::resolveMarket);
+        }
+        return markets;
     }
 
-    private Either<BetPlacementError, Integer> placeBetIfSufficientBalance(Integer userId, PlaceBetCommand command, Integer odds) {
-        return accountRepository.findByUserId(userId)
-                .toEither(BetPlacementError.ACCOUNT_NOT_FOUND)
-                .flatMap(account -> account.debit(Money.of(command.betAmount()))
-                        .toEither(BetPlacementError.INSUFFICIENT_FUNDS)
-                        .map(debitedAccount -> placeBet(command, odds, account, debitedAccount))
-                );
+    private static Either<BetPlacementError, Integer> oddsOf(MarketOdds market, PlaceBetCommand request) {
+        final int odds = request.driverId() == null ? MarketOdds.NO_ODDS : market.oddsOf(request.driverId());
+        return odds == MarketOdds.NO_ODDS ? Either.left(BetPlacementError.DRIVER_MARKET_NOT_FOUND) : Either.right(odds);
     }
 
-    private Integer placeBet(PlaceBetCommand command, Integer odds, Account account, Account debitedAccount) {
-        final var bet = new Bet(
-                null,
-                command.eventId(),
-                command.driverId(),
-                account.userId(),
-                Money.of(command.betAmount()),
-                Bet.BetStatus.PENDING,
-                odds
-        );
-        accountRepository.save(debitedAccount);
-        return betRepository.save(bet).id();
+    private static List<Either<BetPlacementError, Integer>> rejectPriced(List<Either<BetPlacementError, Integer>> odds) {
+        return odds.stream()
+                .map(result -> result.isLeft() ? result : Either.<BetPlacementError, Integer>left(BetPlacementError.SLIP_REJECTED))
+                .toList();
     }
 }
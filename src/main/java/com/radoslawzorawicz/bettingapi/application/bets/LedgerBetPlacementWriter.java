@@ -0,0 +1,60 @@
+package com.radoslawzorawicz.bettingapi.application.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountLedger;
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import io.vavr.control.Either;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+import static com.radoslawzorawicz.bettingapi.application.bets.TransactionalBetPlacementWriter.pendingBet;
+
+@RequiredArgsConstructor
+public class LedgerBetPlacementWriter implements BetPlacementWriter {
+    private final AccountLedger accountLedger;
+    private final BetRepository betRepository;
+
+    @Transactional
+    @Override
+    public Either<BetPlacementError, Integer> write(Integer userId, PlaceBetCommand command, Integer odds) {
+        final Money amount = Money.of(command.betAmount());
+        return switch (accountLedger.tryDebit(userId, amount)) {
+            case ACCOUNT_NOT_FOUND -> Either.left(BetPlacementError.ACCOUNT_NOT_FOUND);
+            case INSUFFICIENT_FUNDS -> Either.left(BetPlacementError.INSUFFICIENT_FUNDS);
+            case DEBITED -> Either.right(placeBet(userId, command, odds, amount));
+        };
+    }
+
+    @Transactional
+    @Override
+    public Either<BetPlacementError, List<Integer>> writeAll(Integer userId, List<PricedBet> bets) {
+        final List<Bet> pending = bets.stream()
+                .map(bet -> pendingBet(userId, bet.command(), bet.odds(), Money.of(bet.command().betAmount())))
+                .toList();
+        final Money stake = pending.stream()
+                .map(Bet::amount)
+                .reduce(Money.zero(), Money::add);
+        return switch (accountLedger.tryDebit(userId, stake)) {
+            case ACCOUNT_NOT_FOUND -> Either.left(BetPlacementError.ACCOUNT_NOT_FOUND);
+            case INSUFFICIENT_FUNDS -> Either.left(BetPlacementError.INSUFFICIENT_FUNDS);
+            case DEBITED -> Either.right(placeBets(userId, pending));
+        };
+    }
+
+    private Integer placeBet(Integer userId, PlaceBetCommand command, Integer odds, Money amount) {
+        final Integer betId = betRepository.save(pendingBet(userId, command, odds, amount)).id();
+        accountLedger.recordDebit(userId, amount, betId);
+        return betId;
+    }
+
+    private List<Integer> placeBets(Integer userId, List<Bet> pending) {
+        final List<Bet> saved = betRepository.saveAll(pending);
+        saved.forEach(bet -> accountLedger.recordDebit(userId, bet.amount(), bet.id()));
+        return saved.stream().map(Bet::id).toList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.radoslawzorawicz.bettingapi.application.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+
+public record PricedBet(
+        PlaceBetCommand command,
+        Integer odds
+) {
+}
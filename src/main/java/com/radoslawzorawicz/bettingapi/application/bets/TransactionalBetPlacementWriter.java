@@ -0,0 +1,54 @@
+package com.radoslawzorawicz.bettingapi.application.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import io.vavr.control.Either;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+public class TransactionalBetPlacementWriter implements BetPlacementWriter {
+    private final AccountRepository accountRepository;
+    private final BetRepository betRepository;
+
+    @Transactional
+    @Override
+    public Either<BetPlacementError, Integer> write(Integer userId, PlaceBetCommand command, Integer odds) {
+        final Money amount = Money.of(command.betAmount());
+        return switch (accountRepository.tryDebit(userId, amount)) {
+            case ACCOUNT_NOT_FOUND -> Either.left(BetPlacementError.ACCOUNT_NOT_FOUND);
+            case INSUFFICIENT_FUNDS -> Either.left(BetPlacementError.INSUFFICIENT_FUNDS);
+            case DEBITED -> Either.right(placeBet(userId, command, odds, amount));
+        };
+    }
+
+    @Transactional
+    @Override
+    public Either<BetPlacementError, List<Integer>> writeAll(Integer userId, List<PricedBet> bets) {
+        final List<Bet> pending = bets.stream()
+                .map(bet -> pendingBet(userId, bet.command(), bet.odds(), Money.of(bet.command().betAmount())))
+                .toList();
+        final Money stake = pending.stream()
+                .map(Bet::amount)
+                .reduce(Money.zero(), Money::add);
+        return switch (accountRepository.tryDebit(userId, stake)) {
+            case ACCOUNT_NOT_FOUND -> Either.left(BetPlacementError.ACCOUNT_NOT_FOUND);
+            case INSUFFICIENT_FUNDS -> Either.left(BetPlacementError.INSUFFICIENT_FUNDS);
+            case DEBITED -> Either.right(betRepository.saveAll(pending).stream().map(Bet::id).toList());
+        };
+    }
+
+    private Integer placeBet(Integer userId, PlaceBetCommand command, Integer odds, Money amount) {
+        return betRepository.save(pendingBet(userId, command, odds, amount)).id();
+    }
+
+    static Bet pendingBet(Integer userId, PlaceBetCommand command, Integer odds, Money amount) {
+        return new Bet(null, command.eventId(), command.driverId(), userId, amount, Bet.BetStatus.PENDING, odds);
+    }
+}
@@ -1,7 +1,7 @@
 package com.radoslawzorawicz.bettingapi.application.events;
 
 import com.radoslawzorawicz.bettingapi.domain.events.model.*;
-import com.radoslawzorawicz.bettingapi.domain.events.service.OddsPolicy;
+import com.radoslawzorawicz.bettingapi.domain.events.service.OddsBook;
 import io.vavr.control.Either;
 import io.vavr.control.Option;
 import jakarta.transaction.Transactional;
@@ -14,21 +14,30 @@ import java.util.List;
 public class EventsApplicationService {
     private final RaceEventsReadRepository raceEventsReadRepository;
     private final EventOutcomeRepository outcomeRepository;
-    private final OddsPolicy oddsPolicy;
+    private final OddsBook oddsBook;
     private final DomainEventPublisher eventPublisher;
+    private final SettlementOutbox settlementOutbox;
 
-    public Either<RaceRetrievalError, List<Event>> getEvents(Integer year, String country, String sessionType) {
-        return raceEventsReadRepository.getEvents(year, country, sessionType);
+    public Either<RaceRetrievalError, Snapshot<List<Event>>> getEventsSnapshot(Integer year, String country, String sessionType) {
+        return raceEventsReadRepository.getEventsSnapshot(year, country, sessionType);
     }
 
-    public Either<RaceRetrievalError, List<DriverMarket>> getDriversMarket(String sessionId) {
-        return raceEventsReadRepository.getDrivers(sessionId)
-                .map(drivers -> drivers.stream().map(driver -> DriverMarket.from(driver, oddsPolicy)).toList());
+    public Either<RaceRetrievalError, Snapshot<List<DriverMarket>>> getDriversMarketSnapshot(String sessionId) {
+        return raceEventsReadRepository.getDriversSnapshot(sessionId)
+                .map(snapshot -> snapshot.map(drivers -> toMarkets(sessionId, drivers)));
     }
 
-    public Either<RaceRetrievalError, List<DriverMarket>> getDriverMarket(String sessionId, Integer driverId) {
-        return raceEventsReadRepository.getDrivers(sessionId, driverId)
-                .map(drivers -> drivers.stream().map(driver -> DriverMarket.from(driver, oddsPolicy)).toList());
+    /**
+     * Locked-in odds of the session's market, read from the odds book; looking up a driver in it does not allocate.
+     * The drivers are only looked up for a market nobody has been quoted yet.
+     */
+    public Either<RaceRetrievalError, MarketOdds> getMarketOdds(String sessionId) {
+        final Option<MarketOdds> quoted = oddsBook.find(sessionId);
+        if (quoted.isDefined()) {
+            return Either.right(quoted.get());
+        }
+        return raceEventsReadRepository.getDrivers(sessionId)
+                .map(drivers -> marketOf(sessionId, drivers));
     }
 
     @Transactional
@@ -41,7 +50,28 @@ public class EventsApplicationService {
         final Option<EventOutcome> saved = outcomeRepository.save(new EventOutcome(eventId, winningDriverId, dateReceived));
         return saved
                 .toEither(SettlementError.EVENT_ALREADY_FINISHED)
+                .peek(ignored -> oddsBook.close(eventId))
                 .peek(ignored -> eventPublisher.publish(new EventFinished(eventId, winningDriverId, dateReceived)))
                 .map(ignored -> null);
     }
+
+    public Option<Settlement> getSettlement(String eventId) {
+        return settlementOutbox.findByEventId(eventId);
+    }
+
+    private List<DriverMarket> toMarkets(String sessionId, List<Driver> drivers) {
+        final MarketOdds marketOdds = marketOf(sessionId, drivers);
+        return drivers.stream()
+                .map(driver -> DriverMarket.of(driver, marketOdds))
+                .filter(market -> market.odds() != MarketOdds.NO_ODDS)
+                .toList();
+    }
+
+    // a finished event's market was closed when its outcome came in, so it must not be priced into the book again
+    private MarketOdds marketOf(String sessionId, List<Driver> drivers) {
+        if (oddsBook.find(sessionId).isEmpty() && outcomeRepository.findById(sessionId).isDefined()) {
+            return MarketOdds.empty();
+        }
+        return oddsBook.marketFor(sessionId, drivers);
+    }
 }
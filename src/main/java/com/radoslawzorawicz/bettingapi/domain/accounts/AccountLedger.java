@@ -0,0 +1,11 @@
+package com.radoslawzorawicz.bettingapi.domain.accounts;
+
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+
+// A debit must happen inside a transaction and is given back when that transaction does not commit
+public interface AccountLedger {
+
+    DebitOutcome tryDebit(Integer userId, Money amount);
+
+    void recordDebit(Integer userId, Money amount, Integer betId);
+}
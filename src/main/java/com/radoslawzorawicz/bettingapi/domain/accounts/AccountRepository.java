@@ -1,5 +1,6 @@
 package com.radoslawzorawicz.bettingapi.domain.accounts;
 
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
 import io.vavr.control.Option;
 
 import java.util.Collection;
@@ -8,6 +9,8 @@ import java.util.List;
 public interface AccountRepository {
     Option<Account> findByUserId(Integer userId);
 
+    DebitOutcome tryDebit(Integer userId, Money amount);
+
     List<Account> findAllByUserIdIn(Collection<Integer> userIds);
 
     Account save(Account account);
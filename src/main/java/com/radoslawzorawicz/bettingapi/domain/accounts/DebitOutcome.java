@@ -0,0 +1,7 @@
+package com.radoslawzorawicz.bettingapi.domain.accounts;
+
+public enum DebitOutcome {
+    DEBITED,
+    INSUFFICIENT_FUNDS,
+    ACCOUNT_NOT_FOUND
+}
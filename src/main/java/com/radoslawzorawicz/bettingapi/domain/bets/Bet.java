@@ -27,6 +27,10 @@ public record Bet(
         return amount.multiply(odds);
     }
 
+    public long payoutCents() {
+        return Math.multiplyExact(amount.cents(), odds.longValue());
+    }
+
     public boolean isWon() {
         return status == BetStatus.WON;
     }
@@ -0,0 +1,11 @@
+package com.radoslawzorawicz.bettingapi.domain.bets;
+
+import io.vavr.control.Option;
+
+import java.util.List;
+
+public record BetPage(
+        List<Bet> bets,
+        Option<Integer> nextCursor
+) {
+}
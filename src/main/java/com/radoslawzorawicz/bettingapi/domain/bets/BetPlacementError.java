@@ -4,5 +4,7 @@ public enum BetPlacementError {
     ACCOUNT_NOT_FOUND,
     INSUFFICIENT_FUNDS,
     INTERNAL_ERROR,
-    DRIVER_MARKET_NOT_FOUND;
+    DRIVER_MARKET_NOT_FOUND,
+    PLACEMENT_QUEUE_FULL,
+    SLIP_REJECTED;
 }
@@ -0,0 +1,16 @@
+package com.radoslawzorawicz.bettingapi.domain.bets;
+
+public record BetQuery(
+        Integer userId,
+        Bet.BetStatus status,
+        String eventId,
+        Integer after
+) {
+    public BetQuery {
+        if (userId == null) throw new IllegalArgumentException("userId must not be null");
+    }
+
+    public static BetQuery ofUser(Integer userId) {
+        return new BetQuery(userId, null, null, null);
+    }
+}
@@ -0,0 +1,9 @@
+package com.radoslawzorawicz.bettingapi.domain.bets;
+
+import java.util.function.Consumer;
+
+public interface BetQueryRepository {
+    BetPage findPage(BetQuery query, int limit);
+
+    void forEach(BetQuery query, Consumer<Bet> action);
+}
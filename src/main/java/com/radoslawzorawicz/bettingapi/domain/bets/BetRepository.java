@@ -5,9 +5,7 @@ import java.util.List;
 public interface BetRepository {
     Bet save(Bet bet);
 
-    void saveAll(List<Bet> bets);
-
-    List<Bet> findAllByUserIdOrderByIdDesc(Integer userId);
+    List<Bet> saveAll(List<Bet> bets);
 
     List<Bet> findAllByEventIdAndStatus(String eventId, Bet.BetStatus status);
 }
@@ -2,25 +2,148 @@ package com.radoslawzorawicz.bettingapi.domain.bets;
 
 import com.radoslawzorawicz.bettingapi.domain.shared.Money;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-
-import static java.util.stream.Collectors.*;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 public final class SettlementPolicy {
 
+    private static final int TASKS_PER_WORKER = 4;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public SettlementPolicy() {
+        this.pool = null;
+        this.parallelThreshold = Integer.MAX_VALUE;
+    }
+
+    public SettlementPolicy(ForkJoinPool pool, int parallelThreshold) {
+        if (parallelThreshold < 1) {
+            throw new IllegalArgumentException("Parallel threshold must be positive: " + parallelThreshold);
+        }
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
     public List<Bet> resolve(List<Bet> pendingBets, Integer winningDriverId) {
-        return pendingBets.stream()
-                .map(bet -> bet.resolveByDriverId(winningDriverId))
-                .toList();
+        if (!runsInParallel(pendingBets)) {
+            return pendingBets.stream()
+                    .map(bet -> bet.resolveByDriverId(winningDriverId))
+                    .toList();
+        }
+        final List<Bet> bets = randomAccess(pendingBets);
+        final Bet[] resolved = new Bet[bets.size()];
+        pool.invoke(new ResolveTask(bets, resolved, winningDriverId, 0, bets.size(), leafSize(bets)));
+        return Collections.unmodifiableList(Arrays.asList(resolved));
     }
 
+    public UserPayouts payoutsByUser(List<Bet> bets) {
+        if (!runsInParallel(bets)) {
+            return aggregate(bets, 0, bets.size());
+        }
+        final List<Bet> source = randomAccess(bets);
+        return pool.invoke(new PayoutsTask(source, 0, source.size(), leafSize(source)));
+    }
+
+    /**
+     * Boxed view of {@link #payoutsByUser(List)}, kept for callers that still work with {@link Money} maps.
+     */
     public Map<Integer, Money> creditsByUser(List<Bet> bets) {
-        return bets.stream()
-                .filter(Bet::isWon)
-                .collect(groupingBy(
-                        Bet::userId,
-                        mapping(Bet::calculatePayout, reducing(Money.zero(), Money::add))
-                ));
+        return payoutsByUser(bets).toMap();
+    }
+
+    private boolean runsInParallel(List<Bet> bets) {
+        return pool != null && bets.size() >= parallelThreshold;
+    }
+
+    private int leafSize(List<Bet> bets) {
+        return Math.max(1, bets.size() / (pool.getParallelism() * TASKS_PER_WORKER));
+    }
+
+    private static List<Bet> randomAccess(List<Bet> bets) {
+        return bets instanceof RandomAccess ? bets : new ArrayList<>(bets);
+    }
+
+    private static UserPayouts aggregate(List<Bet> bets, int from, int to) {
+        final UserPayouts payouts = new UserPayouts();
+        for (int i = from; i < to; i++) {
+            final Bet bet = bets.get(i);
+            if (bet.isWon()) {
+                payouts.add(bet.userId(), bet.payoutCents());
+            }
+        }
+        return payouts;
+    }
+
+    private static final class ResolveTask extends RecursiveAction {
+        private final List<Bet> bets;
+        private final Bet[] resolved;
+        private final Integer winningDriverId;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private ResolveTask(List<Bet> bets, Bet[] resolved, Integer winningDriverId, int from, int to, int leafSize) {
+            this.bets = bets;
+            this.resolved = resolved;
+            this.winningDriverId = winningDriverId;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    resolved[i] = bets.get(i).resolveByDriverId(winningDriverId);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(
+                    new ResolveTask(bets, resolved, winningDriverId, from, middle, leafSize),
+                    new ResolveTask(bets, resolved, winningDriverId, middle, to, leafSize)
+            );
+        }
+    }
+
+    private static final class PayoutsTask extends RecursiveTask<UserPayouts> {
+        private final List<Bet> bets;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private PayoutsTask(List<Bet> bets, int from, int to, int leafSize) {
+            this.bets = bets;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected UserPayouts compute() {
+            if (to - from <= leafSize) {
+                return aggregate(bets, from, to);
+            }
+            final int middle = (from + to) >>> 1;
+            final PayoutsTask right = new PayoutsTask(bets, middle, to, leafSize);
+            right.fork();
+            final UserPayouts left = new PayoutsTask(bets, from, middle, leafSize).compute();
+            final UserPayouts rightPayouts = right.join();
+            if (left.size() >= rightPayouts.size()) {
+                left.addAll(rightPayouts);
+                return left;
+            }
+            rightPayouts.addAll(left);
+            return rightPayouts;
+        }
     }
 }
@@ -0,0 +1,139 @@
+package com.radoslawzorawicz.bettingapi.domain.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Open addressing over primitives, so large settlements neither box user ids nor allocate Money per winning bet;
+// not thread-safe
+public final class UserPayouts {
+
+    private static final int FREE = Integer.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] userIds;
+    private long[] cents;
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public UserPayouts() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    public UserPayouts(int expectedUsers) {
+        allocate(capacityFor(expectedUsers));
+    }
+
+    public void add(int userId, long payoutCents) {
+        if (userId == FREE) {
+            throw new IllegalArgumentException("Unsupported user id: " + userId);
+        }
+        int slot = slotOf(userId);
+        while (userIds[slot] != FREE) {
+            if (userIds[slot] == userId) {
+                cents[slot] = Math.addExact(cents[slot], payoutCents);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        userIds[slot] = userId;
+        cents[slot] = payoutCents;
+        if (++size > resizeAt) {
+            rehash(userIds.length << 1);
+        }
+    }
+
+    public void addAll(UserPayouts other) {
+        other.forEach(this::add);
+    }
+
+    public long centsOf(int userId) {
+        int slot = slotOf(userId);
+        while (userIds[slot] != FREE) {
+            if (userIds[slot] == userId) {
+                return cents[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0L;
+    }
+
+    public Money payoutOf(int userId) {
+        return Money.ofCents(centsOf(userId));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(PayoutConsumer consumer) {
+        for (int slot = 0; slot < userIds.length; slot++) {
+            if (userIds[slot] != FREE) {
+                consumer.accept(userIds[slot], cents[slot]);
+            }
+        }
+    }
+
+    public Set<Integer> userIds() {
+        final Set<Integer> result = HashSet.newHashSet(size);
+        forEach((userId, ignored) -> result.add(userId));
+        return result;
+    }
+
+    public Map<Integer, Money> toMap() {
+        final Map<Integer, Money> result = HashMap.newHashMap(size);
+        forEach((userId, payoutCents) -> result.put(userId, Money.ofCents(payoutCents)));
+        return result;
+    }
+
+    @FunctionalInterface
+    public interface PayoutConsumer {
+        void accept(int userId, long payoutCents);
+    }
+
+    private int slotOf(int userId) {
+        final int hash = userId * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        final int[] oldUserIds = userIds;
+        final long[] oldCents = cents;
+        allocate(capacity);
+        for (int i = 0; i < oldUserIds.length; i++) {
+            if (oldUserIds[i] != FREE) {
+                int slot = slotOf(oldUserIds[i]);
+                while (userIds[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                userIds[slot] = oldUserIds[i];
+                cents[slot] = oldCents[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        userIds = new int[capacity];
+        Arrays.fill(userIds, FREE);
+        cents = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+
+    private static int capacityFor(int expectedUsers) {
+        final long wanted = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedUsers / 0.75));
+        if (wanted > (1 << 30)) {
+            throw new IllegalArgumentException("Too many users: " + expectedUsers);
+        }
+        return Integer.highestOneBit((int) wanted - 1) << 1;
+    }
+}
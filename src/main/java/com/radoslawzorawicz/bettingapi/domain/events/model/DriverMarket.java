@@ -1,13 +1,12 @@
 package com.radoslawzorawicz.bettingapi.domain.events.model;
 
-import com.radoslawzorawicz.bettingapi.domain.events.service.OddsPolicy;
-
 public record DriverMarket(
         Driver driver,
         int odds
 ) {
-    public static DriverMarket from(Driver driver, OddsPolicy policy) {
-        if (policy == null) throw new IllegalArgumentException("policy must not be null");
-        return new DriverMarket(driver, policy.nextOdds().value());
+    public static DriverMarket of(Driver driver, MarketOdds marketOdds) {
+        if (marketOdds == null) throw new IllegalArgumentException("market odds must not be null");
+        final int odds = driver.driverNumber() == null ? MarketOdds.NO_ODDS : marketOdds.oddsOf(driver.driverNumber());
+        return new DriverMarket(driver, odds);
     }
 }
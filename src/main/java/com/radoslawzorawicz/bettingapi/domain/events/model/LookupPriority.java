@@ -0,0 +1,26 @@
+package com.radoslawzorawicz.bettingapi.domain.events.model;
+
+import java.util.function.Supplier;
+
+// Declared highest priority first, the order in which the OpenF1 budget queue serves lookups
+public enum LookupPriority {
+    PLACEMENT,
+    BROWSING,
+    BACKGROUND;
+
+    private static final ThreadLocal<LookupPriority> CURRENT = ThreadLocal.withInitial(() -> BROWSING);
+
+    public static LookupPriority current() {
+        return CURRENT.get();
+    }
+
+    public <T> T run(Supplier<T> lookup) {
+        final LookupPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return lookup.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.radoslawzorawicz.bettingapi.domain.events.model;
+
+import com.radoslawzorawicz.bettingapi.domain.events.service.OddsPolicy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Driver numbers are kept sorted in a primitive array, so looking up odds is a binary search that does not allocate
+public final class MarketOdds {
+    public static final int NO_ODDS = 0;
+    private static final MarketOdds EMPTY = new MarketOdds(new int[0], new int[0]);
+
+    private final int[] driverNumbers;
+    private final int[] odds;
+
+    private MarketOdds(int[] driverNumbers, int[] odds) {
+        this.driverNumbers = driverNumbers;
+        this.odds = odds;
+    }
+
+    public static MarketOdds empty() {
+        return EMPTY;
+    }
+
+    public static MarketOdds price(List<Driver> drivers, OddsPolicy policy) {
+        return EMPTY.extendedWith(drivers, policy);
+    }
+
+    public int oddsOf(int driverNumber) {
+        final int index = Arrays.binarySearch(driverNumbers, driverNumber);
+        return index < 0 ? NO_ODDS : odds[index];
+    }
+
+    public boolean covers(List<Driver> drivers) {
+        for (int i = 0; i < drivers.size(); i++) {
+            final Integer driverNumber = drivers.get(i).driverNumber();
+            if (driverNumber != null && Arrays.binarySearch(driverNumbers, driverNumber) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public MarketOdds extendedWith(List<Driver> drivers, OddsPolicy policy) {
+        if (policy == null) throw new IllegalArgumentException("policy must not be null");
+        if (covers(drivers)) {
+            return this;
+        }
+
+        final Map<Integer, Integer> oddsByDriverNumber = new TreeMap<>();
+        for (int i = 0; i < driverNumbers.length; i++) {
+            oddsByDriverNumber.put(driverNumbers[i], odds[i]);
+        }
+        drivers.stream()
+                .map(Driver::driverNumber)
+                .filter(driverNumber -> driverNumber != null && !oddsByDriverNumber.containsKey(driverNumber))
+                .forEach(driverNumber -> oddsByDriverNumber.put(driverNumber, policy.nextOdds().value()));
+
+        return new MarketOdds(
+                oddsByDriverNumber.keySet().stream().mapToInt(Integer::intValue).toArray(),
+                oddsByDriverNumber.values().stream().mapToInt(Integer::intValue).toArray()
+        );
+    }
+}
@@ -10,4 +10,12 @@ public interface RaceEventsReadRepository {
     Either<RaceRetrievalError, List<Driver>>  getDrivers(String sessionKey, Integer driverId);
 
     Either<RaceRetrievalError, List<Driver>> getDrivers(String sessionKey);
+
+    default Either<RaceRetrievalError, Snapshot<List<Event>>> getEventsSnapshot(Integer year, String country, String sessionType) {
+        return getEvents(year, country, sessionType).map(Snapshot::fresh);
+    }
+
+    default Either<RaceRetrievalError, Snapshot<List<Driver>>> getDriversSnapshot(String sessionKey) {
+        return getDrivers(sessionKey).map(Snapshot::fresh);
+    }
 }
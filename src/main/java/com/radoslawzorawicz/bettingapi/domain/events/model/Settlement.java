@@ -0,0 +1,13 @@
+package com.radoslawzorawicz.bettingapi.domain.events.model;
+
+import java.time.OffsetDateTime;
+
+public record Settlement(
+        String eventId,
+        Integer winningDriverId,
+        SettlementStatus status,
+        int attempts,
+        String lastError,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {}
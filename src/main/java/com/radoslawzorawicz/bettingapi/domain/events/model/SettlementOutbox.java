@@ -0,0 +1,17 @@
+package com.radoslawzorawicz.bettingapi.domain.events.model;
+
+import io.vavr.control.Option;
+
+import java.time.Duration;
+
+public interface SettlementOutbox {
+    void enqueue(EventFinished event);
+
+    Option<EventFinished> claimNext(Duration lease);
+
+    void markDone(String eventId);
+
+    void markFailed(String eventId, String error, int maxAttempts, Duration retryDelay);
+
+    Option<Settlement> findByEventId(String eventId);
+}
@@ -0,0 +1,7 @@
+package com.radoslawzorawicz.bettingapi.domain.events.model;
+
+public enum SettlementStatus {
+    PENDING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,17 @@
+package com.radoslawzorawicz.bettingapi.domain.events.model;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+public record Snapshot<T>(
+        T value,
+        Duration age
+) {
+    public static <T> Snapshot<T> fresh(T value) {
+        return new Snapshot<>(value, Duration.ZERO);
+    }
+
+    public <U> Snapshot<U> map(Function<? super T, ? extends U> mapper) {
+        return new Snapshot<>(mapper.apply(value), age);
+    }
+}
@@ -0,0 +1,38 @@
+package com.radoslawzorawicz.bettingapi.domain.events.service;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.MarketOdds;
+import io.vavr.control.Option;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// A driver is priced once and never re-rolled, so every reader quotes the same odds until the event finishes
+public final class OddsBook {
+    private final OddsPolicy oddsPolicy;
+    private final ConcurrentMap<String, MarketOdds> markets = new ConcurrentHashMap<>();
+
+    public OddsBook(OddsPolicy oddsPolicy) {
+        if (oddsPolicy == null) throw new IllegalArgumentException("policy must not be null");
+        this.oddsPolicy = oddsPolicy;
+    }
+
+    public MarketOdds marketFor(String eventId, List<Driver> drivers) {
+        final MarketOdds market = markets.get(eventId);
+        if (market != null && market.covers(drivers)) {
+            return market;
+        }
+        return markets.compute(eventId, (ignored, current) -> current == null
+                ? MarketOdds.price(drivers, oddsPolicy)
+                : current.extendedWith(drivers, oddsPolicy));
+    }
+
+    public Option<MarketOdds> find(String eventId) {
+        return Option.of(markets.get(eventId));
+    }
+
+    public void close(String eventId) {
+        markets.remove(eventId);
+    }
+}
@@ -1,40 +1,51 @@
 package com.radoslawzorawicz.bettingapi.domain.shared;
 
-import lombok.Value;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Objects;
 
-@Value
-public class Money {
+@EqualsAndHashCode
+@ToString
+public final class Money {
     private static final int SCALE = 2;
-    BigDecimal value;
+    private static final Money ZERO = new Money(0L);
+    private final long cents;
 
-    private Money(BigDecimal value) {
-        this.value = value.setScale(SCALE, RoundingMode.HALF_UP);
+    private Money(long cents) {
+        this.cents = cents;
     }
 
     public static Money of(BigDecimal value) {
         Objects.requireNonNull(value, "value");
-        if (value.compareTo(BigDecimal.ZERO) < 0) {
+        if (value.signum() < 0) {
             throw new IllegalArgumentException("Money value must be non-negative");
         }
-        return new Money(value);
+        return new Money(value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    public static Money ofCents(long cents) {
+        if (cents < 0) {
+            throw new IllegalArgumentException("Money value must be non-negative");
+        }
+        return new Money(cents);
     }
 
     public static Money zero() {
-        return new Money(BigDecimal.ZERO);
+        return ZERO;
     }
 
     public Money add(Money other) {
-        return new Money(this.value.add(other.value));
+        Objects.requireNonNull(other, "other");
+        return new Money(Math.addExact(this.cents, other.cents));
     }
 
     public Money subtract(Money other) {
         Objects.requireNonNull(other, "other");
-        final var result = this.value.subtract(other.value);
-        if (result.compareTo(BigDecimal.ZERO) < 0) {
+        final long result = this.cents - other.cents;
+        if (result < 0) {
             throw new IllegalArgumentException("Resulting money must be non-negative");
         }
         return new Money(result);
@@ -44,15 +55,19 @@ public class Money {
         if (multiplier < 0) {
             throw new IllegalArgumentException("Multiplier must be non-negative");
         }
-        return new Money(this.value.multiply(BigDecimal.valueOf(multiplier)));
+        return new Money(Math.multiplyExact(this.cents, multiplier));
+    }
+
+    public long cents() {
+        return cents;
     }
 
     public BigDecimal toBigDecimal() {
-        return value;
+        return BigDecimal.valueOf(cents, SCALE);
     }
 
     public int compare(Money other) {
         Objects.requireNonNull(other, "other");
-        return this.value.compareTo(other.value);
+        return Long.compare(this.cents, other.cents);
     }
 }
@@ -3,8 +3,11 @@ package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +20,22 @@ public interface AccountJpaRepository extends JpaRepository<AccountJpaEntity, In
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<AccountJpaEntity> findAllByUserIdIn(Collection<Integer> userIds);
+
+    /**
+     * Debits the account in one statement. Returns {@code true} when debited, {@code false} when the balance is
+     * too low and nothing when there is no account for the user.
+     */
+    @Query(value = """
+            WITH debited AS (
+                UPDATE accounts
+                SET account_balance = ROUND(account_balance, 2) - :amount
+                WHERE user_id = :userId AND ROUND(account_balance, 2) >= :amount
+                RETURNING user_id
+            )
+            SELECT true FROM debited
+            UNION ALL
+            SELECT false FROM accounts
+            WHERE user_id = :userId AND NOT EXISTS (SELECT 1 FROM debited)
+            """, nativeQuery = true)
+    List<Boolean> tryDebit(@Param("userId") Integer userId, @Param("amount") BigDecimal amount);
 }
@@ -0,0 +1,20 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+class AccountLedgerCompactor {
+
+    private final InMemoryAccountLedger ledger;
+    private final int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.accounts.ledger.compact-interval-ms}")
+    void compact() {
+        int folded;
+        do {
+            folded = ledger.compact(batchSize);
+        } while (folded == batchSize);
+    }
+}
@@ -0,0 +1,36 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+@ConditionalOnProperty(name = "app.accounts.ledger.enabled", havingValue = "true")
+class AccountLedgerConfig {
+
+    @Bean(destroyMethod = "close")
+    AccountLedgerOwnership accountLedgerOwnership(DataSource dataSource) throws SQLException {
+        return new AccountLedgerOwnership(dataSource);
+    }
+
+    @Bean
+    @DependsOn("accountLedgerOwnership")
+    InMemoryAccountLedger accountLedger(JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry) {
+        return new InMemoryAccountLedger(jdbcTemplate, new TransactionTemplate(transactionManager), meterRegistry);
+    }
+
+    @Bean
+    AccountLedgerCompactor accountLedgerCompactor(InMemoryAccountLedger accountLedger, AccountLedgerProperties props) {
+        return new AccountLedgerCompactor(accountLedger, props.compactBatchSize());
+    }
+}
@@ -0,0 +1,46 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Balances live in the owning node's memory, so a second node debiting the same accounts would overdraw them.
+// The owner holds a session-level advisory lock on a connection of its own until it shuts down.
+class AccountLedgerOwnership implements AutoCloseable {
+    static final long LOCK_KEY = 0x6c6564676572L;
+
+    private final Connection connection;
+
+    AccountLedgerOwnership(DataSource dataSource) throws SQLException {
+        connection = dataSource.getConnection();
+        try {
+            if (!advisoryLock("SELECT pg_try_advisory_lock(?)")) {
+                throw new IllegalStateException(
+                        "Another node owns the account ledger, app.accounts.ledger.enabled supports a single node");
+            }
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            advisoryLock("SELECT pg_advisory_unlock(?)");
+        } finally {
+            connection.close();
+        }
+    }
+
+    private boolean advisoryLock(String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.accounts.ledger")
+record AccountLedgerProperties(
+        boolean enabled,
+        long compactIntervalMs,
+        int compactBatchSize
+) {
+}
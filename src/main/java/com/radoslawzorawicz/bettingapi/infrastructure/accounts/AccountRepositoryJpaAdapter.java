@@ -2,6 +2,7 @@ package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
 
 import com.radoslawzorawicz.bettingapi.domain.accounts.Account;
 import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.accounts.DebitOutcome;
 import com.radoslawzorawicz.bettingapi.domain.shared.Money;
 import io.vavr.control.Option;
 import lombok.AccessLevel;
@@ -20,6 +21,15 @@ public class AccountRepositoryJpaAdapter implements AccountRepository {
         return Option.ofOptional(jpaRepository.findByUserId(userId)).map(this::toDomain);
     }
 
+    @Override
+    public DebitOutcome tryDebit(Integer userId, Money amount) {
+        final List<Boolean> debited = jpaRepository.tryDebit(userId, amount.toBigDecimal());
+        if (debited.isEmpty()) {
+            return DebitOutcome.ACCOUNT_NOT_FOUND;
+        }
+        return debited.getFirst() ? DebitOutcome.DEBITED : DebitOutcome.INSUFFICIENT_FUNDS;
+    }
+
     @Override
     public List<Account> findAllByUserIdIn(Collection<Integer> userIds) {
         return jpaRepository.findAllByUserIdIn(userIds).stream().map(this::toDomain).toList();
@@ -1,22 +1,67 @@
 package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
 
 import com.radoslawzorawicz.bettingapi.application.accounts.BetsSettlementService;
+import com.radoslawzorawicz.bettingapi.application.accounts.SettlementEngine;
 import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.SettlementPolicy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Configuration
+@EnableConfigurationProperties({SettlementProperties.class, AccountLedgerProperties.class})
 class BetsSettlementServiceConfig {
 
+    @Bean(destroyMethod = "shutdown")
+    ForkJoinPool settlementPool(SettlementProperties props) {
+        final int parallelism = props.parallel().parallelism() > 0
+                ? props.parallel().parallelism()
+                : Runtime.getRuntime().availableProcessors();
+        final AtomicInteger threadIndex = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("settlement-" + threadIndex.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    @Bean
+    SettlementPolicy settlementPolicy(ForkJoinPool settlementPool, SettlementProperties props) {
+        return new SettlementPolicy(settlementPool, props.parallel().threshold());
+    }
+
     @Bean
-    SettlementPolicy settlementPolicy() {
-        return new SettlementPolicy();
+    @ConditionalOnProperty(name = "app.settlement.engine", havingValue = "sql", matchIfMissing = true)
+    SettlementEngine sqlSettlementEngine(JdbcTemplate jdbcTemplate,
+                                         PlatformTransactionManager transactionManager,
+                                         SettlementProperties props,
+                                         AccountLedgerProperties ledgerProps) {
+        return new SqlSettlementEngine(
+                jdbcTemplate,
+                new TransactionTemplate(transactionManager),
+                props.chunkSize(),
+                ledgerProps.enabled() ? SqlSettlementEngine.CreditTarget.LEDGER : SqlSettlementEngine.CreditTarget.ACCOUNTS
+        );
     }
 
     @Bean
-    BetsSettlementService betsSettlementService(BetRepository betRepository, AccountRepository accountRepository, SettlementPolicy settlementPolicy) {
+    @ConditionalOnProperty(name = "app.settlement.engine", havingValue = "jpa")
+    SettlementEngine betsSettlementService(BetRepository betRepository,
+                                           AccountRepository accountRepository,
+                                           SettlementPolicy settlementPolicy,
+                                           AccountLedgerProperties ledgerProps) {
+        if (ledgerProps.enabled()) {
+            throw new IllegalStateException("app.accounts.ledger.enabled requires app.settlement.engine=sql");
+        }
         return new BetsSettlementService(betRepository, accountRepository, settlementPolicy);
     }
 }
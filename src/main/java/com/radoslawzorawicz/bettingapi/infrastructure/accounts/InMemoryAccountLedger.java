@@ -0,0 +1,219 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountLedger;
+import com.radoslawzorawicz.bettingapi.domain.accounts.DebitOutcome;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Loads and compactions exclude each other so that no credit is counted twice; every debit is checked against a
+// balance that includes all earlier ones, so folding any subset of entries keeps account_balance non-negative
+@Log4j2
+class InMemoryAccountLedger implements AccountLedger {
+    private static final String LOAD_BALANCE = """
+            SELECT ROUND(a.account_balance * 100)::bigint + COALESCE((
+                SELECT SUM(l.amount_cents) FROM account_ledger l
+                WHERE l.user_id = a.user_id AND NOT l.compacted AND l.kind = 'DEBIT'
+            ), 0) AS balance_cents
+            FROM accounts a
+            WHERE a.user_id = ?
+            """;
+    private static final String FOLD = """
+            WITH batch AS (
+                SELECT id FROM account_ledger
+                WHERE %s
+                FOR UPDATE SKIP LOCKED
+            ), folded AS (
+                UPDATE account_ledger l
+                SET compacted = true
+                FROM batch
+                WHERE l.id = batch.id
+                RETURNING l.user_id, l.kind, l.amount_cents
+            ), totals AS (
+                SELECT user_id,
+                       count(*) AS entries,
+                       SUM(amount_cents) AS delta_cents,
+                       COALESCE(SUM(amount_cents) FILTER (WHERE kind = 'CREDIT'), 0) AS credit_cents
+                FROM folded
+                GROUP BY user_id
+            ), applied AS (
+                UPDATE accounts a
+                SET account_balance = ROUND(a.account_balance, 2) + t.delta_cents / 100.0
+                FROM totals t
+                WHERE a.user_id = t.user_id
+            )
+            SELECT user_id, entries, credit_cents FROM totals
+            """;
+    private static final String COMPACT = FOLD.formatted("NOT compacted AND NOT quarantined ORDER BY id LIMIT ?");
+    private static final String COMPACT_USER =
+            FOLD.formatted("NOT compacted AND NOT quarantined AND user_id = ? AND id <= ? ORDER BY id");
+    private static final String COMPACT_ENTRY = FOLD.formatted("id = ? AND NOT compacted AND NOT quarantined");
+    private static final String BATCH_USERS = """
+            SELECT user_id, max(id) AS last_id FROM (
+                SELECT user_id, id FROM account_ledger
+                WHERE NOT compacted AND NOT quarantined
+                ORDER BY id
+                LIMIT ?
+            ) batch
+            GROUP BY user_id
+            """;
+    private static final String USER_ENTRIES = """
+            SELECT id FROM account_ledger
+            WHERE user_id = ? AND id <= ? AND NOT compacted AND NOT quarantined
+            ORDER BY id
+            """;
+    private static final RowMapper<FoldedEntries> FOLDED_ROW_MAPPER = (rs, rowNum) -> new FoldedEntries(
+            rs.getInt("user_id"), rs.getInt("entries"), rs.getLong("credit_cents"));
+    private static final RowMapper<BatchUser> BATCH_USER_ROW_MAPPER = (rs, rowNum) -> new BatchUser(
+            rs.getInt("user_id"), rs.getLong("last_id"));
+
+    private final ConcurrentHashMap<Integer, AtomicLong> balances = new ConcurrentHashMap<>();
+    private final ReadWriteLock compaction = new ReentrantReadWriteLock();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate compactionTransaction;
+    private final Counter quarantinedEntries;
+
+    InMemoryAccountLedger(JdbcTemplate jdbcTemplate, TransactionTemplate compactionTransaction, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compactionTransaction = compactionTransaction;
+        this.quarantinedEntries = meterRegistry.counter("accounts.ledger.quarantined");
+    }
+
+    @Override
+    public DebitOutcome tryDebit(Integer userId, Money amount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Debits must run in a transaction, they are given back when it rolls back");
+        }
+        final AtomicLong balance = balanceOf(userId);
+        if (balance == null) {
+            return DebitOutcome.ACCOUNT_NOT_FOUND;
+        }
+        final long cents = amount.cents();
+        long current;
+        do {
+            current = balance.get();
+            if (current < cents) {
+                return DebitOutcome.INSUFFICIENT_FUNDS;
+            }
+        } while (!balance.compareAndSet(current, current - cents));
+        refundUnlessCommitted(balance, cents);
+        return DebitOutcome.DEBITED;
+    }
+
+    @Override
+    public void recordDebit(Integer userId, Money amount, Integer betId) {
+        jdbcTemplate.update(
+                "INSERT INTO account_ledger (user_id, kind, amount_cents, bet_id) VALUES (?, 'DEBIT', ?, ?)",
+                userId, -amount.cents(), betId
+        );
+    }
+
+    int compact(int batchSize) {
+        compaction.writeLock().lock();
+        try {
+            try {
+                return fold(COMPACT, batchSize);
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Folding a batch of ledger entries overdrew an account, folding it user by user", e);
+                return compactUserByUser(batchSize);
+            }
+        } finally {
+            compaction.writeLock().unlock();
+        }
+    }
+
+    private int compactUserByUser(int batchSize) {
+        int entries = 0;
+        for (BatchUser user : jdbcTemplate.query(BATCH_USERS, BATCH_USER_ROW_MAPPER, batchSize)) {
+            try {
+                entries += fold(COMPACT_USER, user.userId(), user.lastId());
+            } catch (DataIntegrityViolationException e) {
+                entries += compactEntryByEntry(user);
+            }
+        }
+        return entries;
+    }
+
+    // Only an account row changed behind the ledger's back can fail a fold; the entries it can no longer cover
+    // are quarantined so that compaction moves on, and stay counted in the balance until an operator clears them.
+    private int compactEntryByEntry(BatchUser user) {
+        final List<Long> ids = jdbcTemplate.queryForList(USER_ENTRIES, Long.class, user.userId(), user.lastId());
+        for (Long id : ids) {
+            try {
+                fold(COMPACT_ENTRY, id);
+            } catch (DataIntegrityViolationException e) {
+                jdbcTemplate.update("UPDATE account_ledger SET quarantined = true WHERE id = ?", id);
+                quarantinedEntries.increment();
+                log.error("Quarantined ledger entry {} of user {}, folding it would overdraw the account", id, user.userId(), e);
+            }
+        }
+        return ids.size();
+    }
+
+    private int fold(String sql, Object... args) {
+        final List<FoldedEntries> folded = compactionTransaction.execute(
+                ignored -> jdbcTemplate.query(sql, FOLDED_ROW_MAPPER, args));
+        if (folded == null) {
+            return 0;
+        }
+        int entries = 0;
+        for (FoldedEntries user : folded) {
+            final AtomicLong balance = balances.get(user.userId());
+            if (balance != null) {
+                balance.addAndGet(user.creditCents());
+            }
+            entries += user.entries();
+        }
+        return entries;
+    }
+
+    private AtomicLong balanceOf(Integer userId) {
+        final AtomicLong known = balances.get(userId);
+        if (known != null) {
+            return known;
+        }
+        compaction.readLock().lock();
+        try {
+            return balances.computeIfAbsent(userId, this::load);
+        } finally {
+            compaction.readLock().unlock();
+        }
+    }
+
+    private AtomicLong load(Integer userId) {
+        return jdbcTemplate.query(LOAD_BALANCE, (rs, rowNum) -> new AtomicLong(rs.getLong("balance_cents")), userId)
+                .stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static void refundUnlessCommitted(AtomicLong balance, long cents) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    balance.addAndGet(cents);
+                }
+            }
+        });
+    }
+
+    private record FoldedEntries(int userId, int entries, long creditCents) {
+    }
+
+    private record BatchUser(int userId, long lastId) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.settlement")
+record SettlementProperties(
+        String engine,
+        int chunkSize,
+        Parallel parallel
+) {
+    record Parallel(int threshold, int parallelism) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.accounts;
+
+import com.radoslawzorawicz.bettingapi.application.accounts.SettlementEngine;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Only PENDING bets are picked up and the checkpoint moves with each chunk, so re-runs never pay twice
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@Log4j2
+class SqlSettlementEngine implements SettlementEngine {
+    private static final String SETTLE_CHUNK = """
+            WITH chunk AS (
+                SELECT id FROM bets
+                WHERE event_id = ? AND status = 'PENDING' AND id > ?
+                ORDER BY id
+                LIMIT ?
+                FOR UPDATE
+            ), settled AS (
+                UPDATE bets b
+                SET status = CASE WHEN b.driver_id = ? THEN 'WON' ELSE 'LOST' END
+                FROM chunk
+                WHERE b.id = chunk.id
+                RETURNING b.id, b.user_id, b.amount, b.odds, b.status
+            ), payouts AS (
+                SELECT user_id, SUM(ROUND(amount, 2) * odds) AS payout
+                FROM settled
+                WHERE status = 'WON'
+                GROUP BY user_id
+            ), credited AS (
+            %s
+            ), progress AS (
+                INSERT INTO settlement_checkpoints (event_id, last_bet_id, settled_bets)
+                SELECT ?, max(id), count(*) FROM settled HAVING count(*) > 0
+                ON CONFLICT (event_id) DO UPDATE
+                SET last_bet_id = GREATEST(settlement_checkpoints.last_bet_id, EXCLUDED.last_bet_id),
+                    settled_bets = settlement_checkpoints.settled_bets + EXCLUDED.settled_bets,
+                    updated_at = now()
+            )
+            SELECT count(*) AS settled_bets, coalesce(max(id), 0) AS last_bet_id FROM settled
+            """;
+    private static final String CREDIT_ACCOUNTS = """
+                UPDATE accounts a
+                SET account_balance = ROUND(a.account_balance, 2) + p.payout
+                FROM payouts p
+                WHERE a.user_id = p.user_id
+                RETURNING a.user_id
+            """;
+    private static final String CREDIT_LEDGER = """
+                INSERT INTO account_ledger (user_id, kind, amount_cents)
+                SELECT user_id, 'CREDIT', (payout * 100)::bigint FROM payouts
+                RETURNING user_id
+            """;
+    private static final RowMapper<Chunk> CHUNK_ROW_MAPPER =
+            (rs, rowNum) -> new Chunk(rs.getInt("settled_bets"), rs.getInt("last_bet_id"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final CreditTarget creditTarget;
+
+    @Override
+    public void settle(String eventId, Integer winningDriverId) {
+        final int checkpoint = checkpointOf(eventId);
+        int settled = settleFrom(eventId, winningDriverId, checkpoint);
+        if (checkpoint > 0) {
+            // bets committed with an id below the checkpoint after it was written
+            settled += settleFrom(eventId, winningDriverId, 0);
+        }
+        log.info("Settled event {}, bets settled in this run: {}, resumed from bet id: {}", eventId, settled, checkpoint);
+    }
+
+    private int settleFrom(String eventId, Integer winningDriverId, int afterBetId) {
+        int settled = 0;
+        int lastBetId = afterBetId;
+        while (true) {
+            final int after = lastBetId;
+            final Chunk chunk = chunkTransaction.execute(ignored -> jdbcTemplate.queryForObject(
+                    creditTarget.settleChunk, CHUNK_ROW_MAPPER, eventId, after, chunkSize, winningDriverId, eventId));
+            if (chunk == null || chunk.settledBets() == 0) {
+                return settled;
+            }
+            settled += chunk.settledBets();
+            lastBetId = chunk.lastBetId();
+        }
+    }
+
+    private int checkpointOf(String eventId) {
+        return jdbcTemplate.query(
+                        "SELECT last_bet_id FROM settlement_checkpoints WHERE event_id = ?",
+                        (rs, rowNum) -> rs.getInt("last_bet_id"),
+                        eventId
+                ).stream()
+                .findFirst()
+                .orElse(0);
+    }
+
+    private record Chunk(int settledBets, int lastBetId) {
+    }
+
+    enum CreditTarget {
+        ACCOUNTS(SETTLE_CHUNK.formatted(CREDIT_ACCOUNTS)),
+        // ledger mode: winnings reach the in-memory balances when the ledger is compacted
+        LEDGER(SETTLE_CHUNK.formatted(CREDIT_LEDGER));
+
+        private final String settleChunk;
+
+        CreditTarget(String settleChunk) {
+            this.settleChunk = settleChunk;
+        }
+    }
+}
@@ -18,7 +18,8 @@ import static com.radoslawzorawicz.bettingapi.domain.bets.Bet.*;
 public class BetJpaEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bets_seq")
+    @SequenceGenerator(name = "bets_seq", sequenceName = "bets_seq", allocationSize = 50)
     @Column(name = "id")
     private Integer id;
 
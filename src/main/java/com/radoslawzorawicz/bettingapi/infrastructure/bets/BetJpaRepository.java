@@ -2,13 +2,16 @@ package com.radoslawzorawicz.bettingapi.infrastructure.bets;
 
 import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface BetJpaRepository extends JpaRepository<BetJpaEntity, Integer> {
-    List<BetJpaEntity> findAllByUserIdOrderByIdDesc(Integer userId);
-
     List<BetJpaEntity> findAllByEventIdAndStatus(String eventId, Bet.BetStatus status);
+
+    // status is inlined so the planner can match the partial idx_bets_pending_event_id_id even with a generic plan
+    @Query("select b from BetJpaEntity b where b.eventId = :eventId and b.status = com.radoslawzorawicz.bettingapi.domain.bets.Bet.BetStatus.PENDING")
+    List<BetJpaEntity> findAllPendingByEventId(String eventId);
 }
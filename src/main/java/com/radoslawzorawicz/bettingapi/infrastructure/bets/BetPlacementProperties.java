@@ -0,0 +1,12 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.bets.placement")
+record BetPlacementProperties(
+        String mode,
+        GroupCommit groupCommit
+) {
+    record GroupCommit(int shards, int queueCapacity, int batchSize, long lingerMs) {
+    }
+}
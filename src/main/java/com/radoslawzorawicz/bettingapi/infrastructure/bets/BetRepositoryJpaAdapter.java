@@ -20,20 +20,21 @@ public class BetRepositoryJpaAdapter implements BetRepository {
     }
 
     @Override
-    public void saveAll(List<Bet> bets) {
+    public List<Bet> saveAll(List<Bet> bets) {
         final List<BetJpaEntity> betJpaEntities = bets.stream()
                 .map(betMapper::toEntity)
                 .toList();
-        jpaRepository.saveAll(betJpaEntities);
-    }
-
-    @Override
-    public List<Bet> findAllByUserIdOrderByIdDesc(Integer userId) {
-        return jpaRepository.findAllByUserIdOrderByIdDesc(userId).stream().map(betMapper::toDomain).toList();
+        return jpaRepository.saveAll(betJpaEntities)
+                .stream()
+                .map(betMapper::toDomain)
+                .toList();
     }
 
     @Override
     public List<Bet> findAllByEventIdAndStatus(String eventId, Bet.BetStatus status) {
-        return jpaRepository.findAllByEventIdAndStatus(eventId, status).stream().map(betMapper::toDomain).toList();
+        final List<BetJpaEntity> entities = status == Bet.BetStatus.PENDING
+                ? jpaRepository.findAllPendingByEventId(eventId)
+                : jpaRepository.findAllByEventIdAndStatus(eventId, status);
+        return entities.stream().map(betMapper::toDomain).toList();
     }
 }
@@ -1,21 +1,74 @@
 package com.radoslawzorawicz.bettingapi.infrastructure.bets;
 
+import com.radoslawzorawicz.bettingapi.application.bets.BetPlacementWriter;
 import com.radoslawzorawicz.bettingapi.application.bets.BetsApplicationService;
 import com.radoslawzorawicz.bettingapi.application.bets.BetsPlacementService;
+import com.radoslawzorawicz.bettingapi.application.bets.LedgerBetPlacementWriter;
+import com.radoslawzorawicz.bettingapi.application.bets.TransactionalBetPlacementWriter;
 import com.radoslawzorawicz.bettingapi.application.events.EventsApplicationService;
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountLedger;
 import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQueryRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
 
 @Configuration
+@EnableConfigurationProperties(BetPlacementProperties.class)
 class BetsServiceConfig {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @Bean
+    BetsApplicationService betsService(BetQueryRepository betQueryRepository,
+                                      EventsApplicationService eventsApplicationService,
+                                      BetPlacementWriter betPlacementWriter) {
+        return new BetsPlacementService(betQueryRepository, eventsApplicationService, betPlacementWriter);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.accounts.ledger.enabled", havingValue = "false", matchIfMissing = true)
+    @ConditionalOnProperty(name = "app.bets.placement.mode", havingValue = "transactional", matchIfMissing = true)
+    BetPlacementWriter betPlacementWriter(AccountRepository accountRepository, BetRepository betRepository) {
+        return new TransactionalBetPlacementWriter(accountRepository, betRepository);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.accounts.ledger.enabled", havingValue = "false", matchIfMissing = true)
+    @ConditionalOnProperty(name = "app.bets.placement.mode", havingValue = "group-commit")
+    BetPlacementWriter groupCommitBetPlacementWriter(AccountRepository accountRepository,
+                                                     BetRepository betRepository,
+                                                     PlatformTransactionManager transactionManager,
+                                                     BetPlacementProperties props) {
+        final var groupCommit = props.groupCommit();
+        // not a bean: its @Transactional is not proxied, every batch runs in the writer's own transaction
+        final var writer = new GroupCommitBetPlacementWriter(
+                new TransactionalBetPlacementWriter(accountRepository, betRepository),
+                new TransactionTemplate(transactionManager),
+                groupCommit.shards(),
+                groupCommit.queueCapacity(),
+                groupCommit.batchSize(),
+                groupCommit.lingerMs()
+        );
+        writer.start();
+        return writer;
+    }
 
     @Bean
-    BetsApplicationService betsService(AccountRepository accountRepository,
-                                      BetRepository betRepository,
-                                      EventsApplicationService eventsApplicationService) {
-        return new BetsPlacementService(accountRepository, betRepository, eventsApplicationService);
+    @ConditionalOnProperty(name = "app.accounts.ledger.enabled", havingValue = "true")
+    BetPlacementWriter ledgerBetPlacementWriter(AccountLedger accountLedger,
+                                                BetRepository betRepository,
+                                                BetPlacementProperties props) {
+        if ("group-commit".equals(props.mode())) {
+            throw new IllegalStateException("app.accounts.ledger.enabled requires app.bets.placement.mode=transactional");
+        }
+        return new LedgerBetPlacementWriter(accountLedger, betRepository);
     }
 
     @Bean
@@ -27,4 +80,13 @@ class BetsServiceConfig {
     BetRepository betRepository(BetJpaRepository betJpaRepository, BetMapper betMapper) {
         return new BetRepositoryJpaAdapter(betJpaRepository, betMapper);
     }
+
+    @Bean
+    BetQueryRepository betQueryRepository(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(STREAM_FETCH_SIZE);
+        final TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return new JdbcBetQueryRepository(jdbcTemplate, readOnlyTransaction);
+    }
 }
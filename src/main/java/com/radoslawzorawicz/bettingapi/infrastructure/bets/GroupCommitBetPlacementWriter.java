@@ -0,0 +1,183 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import com.radoslawzorawicz.bettingapi.application.bets.BetPlacementWriter;
+import com.radoslawzorawicz.bettingapi.application.bets.PricedBet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import io.vavr.control.Either;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+// Users are pinned to a shard, which keeps their placements in order and the writers off each other's account rows
+@Log4j2
+class GroupCommitBetPlacementWriter implements BetPlacementWriter, AutoCloseable {
+    private static final long IDLE_POLL_MS = 100;
+
+    private final BetPlacementWriter delegate;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final List<BlockingQueue<Placement>> shards;
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    GroupCommitBetPlacementWriter(BetPlacementWriter delegate,
+                                  TransactionTemplate batchTransaction,
+                                  int shards,
+                                  int queueCapacity,
+                                  int batchSize,
+                                  long lingerMs) {
+        this.delegate = delegate;
+        this.batchTransaction = batchTransaction;
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.shards = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            this.shards.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+    }
+
+    void start() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            final BlockingQueue<Placement> queue = shards.get(shard);
+            writers.add(Thread.ofPlatform().name("bet-writer-" + shard).daemon().start(() -> drain(queue)));
+        }
+    }
+
+    @Override
+    public Either<BetPlacementError, Integer> write(Integer userId, PlaceBetCommand command, Integer odds) {
+        if (!running) {
+            throw new IllegalStateException("Bet placement writer is shut down");
+        }
+        final var placement = new Placement(userId, command, odds, new CompletableFuture<>());
+        final BlockingQueue<Placement> queue = shards.get(Math.floorMod(userId, shards.size()));
+        if (!queue.offer(placement)) {
+            return Either.left(BetPlacementError.PLACEMENT_QUEUE_FULL);
+        }
+        // close() may have drained the queues between the check above and the offer; if it did, nobody else will
+        // complete this placement, and if it did not, it or a writer takes the placement before we can remove it
+        if (!running && queue.remove(placement)) {
+            throw new IllegalStateException("Bet placement writer is shut down");
+        }
+        try {
+            return placement.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A bet slip is already one debit and one batch insert, so it is committed on the caller's thread instead of
+     * waiting for its shard.
+     */
+    @Override
+    public Either<BetPlacementError, List<Integer>> writeAll(Integer userId, List<PricedBet> bets) {
+        if (!running) {
+            throw new IllegalStateException("Bet placement writer is shut down");
+        }
+        return batchTransaction.execute(ignored -> delegate.writeAll(userId, bets));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        for (BlockingQueue<Placement> queue : shards) {
+            Placement placement;
+            while ((placement = queue.poll()) != null) {
+                placement.result().completeExceptionally(new IllegalStateException("Bet placement writer is shut down"));
+            }
+        }
+    }
+
+    int queued() {
+        return shards.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    private void drain(BlockingQueue<Placement> queue) {
+        final List<Placement> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                final Placement first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(queue, batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(BlockingQueue<Placement> queue, List<Placement> batch) throws InterruptedException {
+        final long deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < batchSize) {
+            if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                continue;
+            }
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            final Placement next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<Placement> batch) {
+        try {
+            final List<Either<BetPlacementError, Integer>> results =
+                    batchTransaction.execute(ignored -> batch.stream().map(this::apply).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.getFirst().result().completeExceptionally(e);
+                return;
+            }
+            log.warn("Group commit of {} bet placements failed, retrying them one by one", batch.size(), e);
+            batch.forEach(this::commitAlone);
+        }
+    }
+
+    private void commitAlone(Placement placement) {
+        try {
+            placement.result().complete(batchTransaction.execute(ignored -> apply(placement)));
+        } catch (RuntimeException e) {
+            placement.result().completeExceptionally(e);
+        }
+    }
+
+    private Either<BetPlacementError, Integer> apply(Placement placement) {
+        return delegate.write(placement.userId(), placement.command(), placement.odds());
+    }
+
+    private record Placement(Integer userId,
+                             PlaceBetCommand command,
+                             Integer odds,
+                             CompletableFuture<Either<BetPlacementError, Integer>> result) {
+    }
+}
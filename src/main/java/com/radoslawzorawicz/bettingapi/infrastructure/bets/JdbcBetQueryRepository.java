@@ -0,0 +1,82 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPage;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQuery;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQueryRepository;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// ForEach runs in a read-only transaction, without one the driver ignores the fetch size and reads every row at once
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+class JdbcBetQueryRepository implements BetQueryRepository {
+    private static final RowMapper<Bet> BET_ROW_MAPPER = (rs, rowNum) -> new Bet(
+            rs.getInt("id"),
+            rs.getString("event_id"),
+            rs.getInt("driver_id"),
+            rs.getInt("user_id"),
+            Money.of(rs.getBigDecimal("amount")),
+            Bet.BetStatus.valueOf(rs.getString("status")),
+            rs.getInt("odds")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Override
+    public BetPage findPage(BetQuery query, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be positive");
+
+        final List<Object> args = new ArrayList<>();
+        final String sql = select(query, args) + " LIMIT ?";
+        args.add(limit + 1);
+
+        final List<Bet> rows = jdbcTemplate.query(sql, BET_ROW_MAPPER, args.toArray());
+        if (rows.size() <= limit) {
+            return new BetPage(rows, Option.none());
+        }
+        final List<Bet> page = rows.subList(0, limit);
+        return new BetPage(page, Option.of(page.getLast().id()));
+    }
+
+    @Override
+    public void forEach(BetQuery query, Consumer<Bet> action) {
+        final List<Object> args = new ArrayList<>();
+        final String sql = select(query, args);
+        readOnlyTransaction.executeWithoutResult(ignored -> jdbcTemplate.query(
+                sql,
+                rs -> {
+                    action.accept(BET_ROW_MAPPER.mapRow(rs, rs.getRow()));
+                },
+                args.toArray()
+        ));
+    }
+
+    private static String select(BetQuery query, List<Object> args) {
+        final StringBuilder sql = new StringBuilder(
+                "SELECT id, amount, event_id, driver_id, user_id, status, odds FROM bets WHERE user_id = ?");
+        args.add(query.userId());
+        if (query.after() != null) {
+            sql.append(" AND id < ?");
+            args.add(query.after());
+        }
+        if (query.status() != null) {
+            sql.append(" AND status = ?");
+            args.add(query.status().name());
+        }
+        if (query.eventId() != null) {
+            sql.append(" AND event_id = ?");
+            args.add(query.eventId());
+        }
+        return sql.append(" ORDER BY id DESC").toString();
+    }
+}
@@ -1,10 +1,11 @@
 package com.radoslawzorawicz.bettingapi.infrastructure.bets;
 
-import com.radoslawzorawicz.bettingapi.application.accounts.BetsSettlementService;
 import com.radoslawzorawicz.bettingapi.application.accounts.EventFinishedTransactionalHandler;
+import com.radoslawzorawicz.bettingapi.application.accounts.SettlementEngine;
 import com.radoslawzorawicz.bettingapi.domain.events.model.DomainEventPublisher;
 import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinishedHandler;
-import com.radoslawzorawicz.bettingapi.infrastructure.events.InMemoryDomainEventPublisher;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
+import com.radoslawzorawicz.bettingapi.infrastructure.events.OutboxDomainEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -12,12 +13,12 @@ import org.springframework.context.annotation.Configuration;
 class SettlementFlowConfig {
 
     @Bean
-    EventFinishedHandler eventFinishedHandler(BetsSettlementService betsSettlementService) {
-        return new EventFinishedTransactionalHandler(betsSettlementService);
+    EventFinishedHandler eventFinishedHandler(SettlementEngine settlementEngine) {
+        return new EventFinishedTransactionalHandler(settlementEngine);
     }
 
     @Bean
-    DomainEventPublisher domainEventPublisher(EventFinishedHandler handler) {
-        return new InMemoryDomainEventPublisher(handler);
+    DomainEventPublisher domainEventPublisher(SettlementOutbox settlementOutbox) {
+        return new OutboxDomainEventPublisher(settlementOutbox);
     }
 }
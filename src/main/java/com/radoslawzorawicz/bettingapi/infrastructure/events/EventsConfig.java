@@ -4,6 +4,8 @@ import com.radoslawzorawicz.bettingapi.application.events.EventsApplicationServi
 import com.radoslawzorawicz.bettingapi.domain.events.model.DomainEventPublisher;
 import com.radoslawzorawicz.bettingapi.domain.events.model.EventOutcomeRepository;
 import com.radoslawzorawicz.bettingapi.domain.events.model.RaceEventsReadRepository;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
+import com.radoslawzorawicz.bettingapi.domain.events.service.OddsBook;
 import com.radoslawzorawicz.bettingapi.domain.events.service.OddsPolicy;
 import com.radoslawzorawicz.bettingapi.domain.events.service.RandomOddsPolicy;
 import org.springframework.context.annotation.Bean;
@@ -15,9 +17,10 @@ public class EventsConfig {
     @Bean
     public EventsApplicationService eventsApplicationService(RaceEventsReadRepository raceEventsReadRepository,
                                                             EventOutcomeRepository eventOutcomeRepository,
-                                                            OddsPolicy oddsPolicy,
-                                                            DomainEventPublisher eventPublisher) {
-        return new EventsApplicationService(raceEventsReadRepository, eventOutcomeRepository, oddsPolicy, eventPublisher);
+                                                            OddsBook oddsBook,
+                                                            DomainEventPublisher eventPublisher,
+                                                            SettlementOutbox settlementOutbox) {
+        return new EventsApplicationService(raceEventsReadRepository, eventOutcomeRepository, oddsBook, eventPublisher, settlementOutbox);
     }
 
     @Bean
@@ -29,4 +32,9 @@ public class EventsConfig {
     public OddsPolicy oddsPolicy() {
         return new RandomOddsPolicy();
     }
+
+    @Bean
+    public OddsBook oddsBook(OddsPolicy oddsPolicy) {
+        return new OddsBook(oddsPolicy);
+    }
 }
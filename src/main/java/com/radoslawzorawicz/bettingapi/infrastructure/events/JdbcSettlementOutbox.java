@@ -0,0 +1,99 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinished;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Settlement;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementStatus;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+// Rows are claimed with a lease instead of a lock, so a worker dying mid-settlement only delays the event
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public class JdbcSettlementOutbox implements SettlementOutbox {
+    private static final String CLAIM_NEXT = """
+            UPDATE event_outcomes_log
+            SET locked_until = now() + make_interval(secs => ?), updated_at = now()
+            WHERE id = (
+                SELECT id FROM event_outcomes_log
+                WHERE status = 'PENDING' AND (locked_until IS NULL OR locked_until < now())
+                ORDER BY id
+                LIMIT 1
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING event_id, winning_driver_id, finished_at
+            """;
+    private static final String MARK_FAILED = """
+            UPDATE event_outcomes_log
+            SET attempts = attempts + 1,
+                last_error = ?,
+                status = CASE WHEN attempts + 1 >= ? THEN 'FAILED' ELSE 'PENDING' END,
+                locked_until = now() + make_interval(secs => ?),
+                updated_at = now()
+            WHERE event_id = ? AND status = 'PENDING'
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void enqueue(EventFinished event) {
+        jdbcTemplate.update(
+                "INSERT INTO event_outcomes_log (event_id, winning_driver_id, finished_at) VALUES (?, ?, ?)",
+                event.eventId(), event.winningDriverId(), event.finishedAt()
+        );
+    }
+
+    @Override
+    public Option<EventFinished> claimNext(Duration lease) {
+        return Option.ofOptional(jdbcTemplate.query(
+                CLAIM_NEXT,
+                (rs, rowNum) -> new EventFinished(
+                        rs.getString("event_id"),
+                        rs.getInt("winning_driver_id"),
+                        rs.getObject("finished_at", OffsetDateTime.class)
+                ),
+                seconds(lease)
+        ).stream().findFirst());
+    }
+
+    @Override
+    public void markDone(String eventId) {
+        jdbcTemplate.update(
+                "UPDATE event_outcomes_log SET status = 'DONE', locked_until = NULL, updated_at = now() WHERE event_id = ?",
+                eventId
+        );
+    }
+
+    @Override
+    public void markFailed(String eventId, String error, int maxAttempts, Duration retryDelay) {
+        jdbcTemplate.update(MARK_FAILED, error, maxAttempts, seconds(retryDelay), eventId);
+    }
+
+    @Override
+    public Option<Settlement> findByEventId(String eventId) {
+        return Option.ofOptional(jdbcTemplate.query(
+                """
+                SELECT event_id, winning_driver_id, status, attempts, last_error, created_at, updated_at
+                FROM event_outcomes_log WHERE event_id = ?
+                """,
+                (rs, rowNum) -> new Settlement(
+                        rs.getString("event_id"),
+                        rs.getInt("winning_driver_id"),
+                        SettlementStatus.valueOf(rs.getString("status")),
+                        rs.getInt("attempts"),
+                        rs.getString("last_error"),
+                        rs.getObject("created_at", OffsetDateTime.class),
+                        rs.getObject("updated_at", OffsetDateTime.class)
+                ),
+                eventId
+        ).stream().findFirst());
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toMillis() / 1000.0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.DomainEventPublisher;
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinished;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
+
+public class OutboxDomainEventPublisher implements DomainEventPublisher {
+
+    private final SettlementOutbox outbox;
+
+    public OutboxDomainEventPublisher(SettlementOutbox outbox) {
+        this.outbox = outbox;
+    }
+
+    @Override
+    public void publish(EventFinished event) {
+        outbox.enqueue(event);
+    }
+}
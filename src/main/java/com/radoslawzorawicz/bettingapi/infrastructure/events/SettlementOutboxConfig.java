@@ -0,0 +1,44 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events;
+
+import com.radoslawzorawicz.bettingapi.application.accounts.SettlementOutboxWorker;
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinishedHandler;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(SettlementOutboxProperties.class)
+class SettlementOutboxConfig {
+
+    @Bean
+    SettlementOutbox settlementOutbox(JdbcTemplate jdbcTemplate) {
+        return new JdbcSettlementOutbox(jdbcTemplate);
+    }
+
+    @Bean
+    SettlementOutboxWorker settlementOutboxWorker(SettlementOutbox settlementOutbox,
+                                                  EventFinishedHandler eventFinishedHandler,
+                                                  SettlementOutboxProperties props) {
+        return new SettlementOutboxWorker(
+                settlementOutbox,
+                eventFinishedHandler,
+                Duration.ofMillis(props.leaseMs()),
+                Duration.ofMillis(props.retryDelayMs()),
+                props.maxAttempts(),
+                props.batchSize()
+        );
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.settlement.outbox.worker-enabled", havingValue = "true", matchIfMissing = true)
+    SettlementOutboxPoller settlementOutboxPoller(SettlementOutboxWorker settlementOutboxWorker) {
+        return new SettlementOutboxPoller(settlementOutboxWorker);
+    }
+}
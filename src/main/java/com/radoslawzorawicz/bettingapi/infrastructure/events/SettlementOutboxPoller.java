@@ -0,0 +1,17 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events;
+
+import com.radoslawzorawicz.bettingapi.application.accounts.SettlementOutboxWorker;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+class SettlementOutboxPoller {
+
+    private final SettlementOutboxWorker worker;
+
+    @Scheduled(fixedDelayString = "${app.settlement.outbox.poll-interval-ms}")
+    void poll() {
+        worker.drain();
+    }
+}
@@ -0,0 +1,13 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.settlement.outbox")
+record SettlementOutboxProperties(
+        long pollIntervalMs,
+        long leaseMs,
+        long retryDelayMs,
+        int maxAttempts,
+        int batchSize
+) {
+}
@@ -0,0 +1,221 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Event;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceEventsReadRepository;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Snapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.vavr.control.Either;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// A failed refresh keeps the stale entry, so an OpenF1 outage shorter than maxStaleness goes unnoticed
+class CachingRaceEventsReadRepository implements RaceEventsReadRepository {
+
+    private final RaceEventsReadRepository delegate;
+    private final OpenF1CacheProperties props;
+    private final Executor refresher;
+    private final Clock clock;
+    private final Ticker ticker;
+    private final Cache<EventsQuery, Cached<List<Event>>> events;
+    private final Cache<String, Cached<List<Driver>>> drivers;
+    private final Cache<String, OffsetDateTime> sessionEndTimes;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    CachingRaceEventsReadRepository(RaceEventsReadRepository delegate,
+                                    OpenF1CacheProperties props,
+                                    MeterRegistry meterRegistry,
+                                    Executor refresher) {
+        this(delegate, props, meterRegistry, refresher, Clock.systemUTC(), Ticker.systemTicker());
+    }
+
+    CachingRaceEventsReadRepository(RaceEventsReadRepository delegate,
+                                    OpenF1CacheProperties props,
+                                    MeterRegistry meterRegistry,
+                                    Executor refresher,
+                                    Clock clock,
+                                    Ticker ticker) {
+        this.delegate = delegate;
+        this.props = props;
+        this.refresher = refresher;
+        this.clock = clock;
+        this.ticker = ticker;
+        this.events = CaffeineCacheMetrics.monitor(meterRegistry, this.<EventsQuery, List<Event>>newCache(), "openf1.sessions");
+        this.drivers = CaffeineCacheMetrics.monitor(meterRegistry, this.<String, List<Driver>>newCache(), "openf1.drivers");
+        this.sessionEndTimes = Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(props.maximumSize())
+                .expireAfterWrite(props.finishedTtl())
+                .build();
+    }
+
+    @Override
+    public Either<RaceRetrievalError, List<Event>> getEvents(Integer year, String country, String sessionType) {
+        return getEventsSnapshot(year, country, sessionType).map(Snapshot::value);
+    }
+
+    @Override
+    public Either<RaceRetrievalError, Snapshot<List<Event>>> getEventsSnapshot(Integer year, String country, String sessionType) {
+        return readThrough(
+                events,
+                new EventsQuery(year, country, sessionType),
+                () -> delegate.getEventsSnapshot(year, country, sessionType)
+                        .peek(snapshot -> rememberSessionEndTimes(snapshot.value())),
+                this::eventsTtl
+        );
+    }
+
+    @Override
+    public Either<RaceRetrievalError, List<Driver>> getDrivers(String sessionKey, Integer driverId) {
+        return getDrivers(sessionKey)
+                .map(sessionDrivers -> sessionDrivers.stream()
+                        .filter(driver -> Objects.equals(driver.driverNumber(), driverId))
+                        .toList());
+    }
+
+    @Override
+    public Either<RaceRetrievalError, List<Driver>> getDrivers(String sessionKey) {
+        return getDriversSnapshot(sessionKey).map(Snapshot::value);
+    }
+
+    @Override
+    public Either<RaceRetrievalError, Snapshot<List<Driver>>> getDriversSnapshot(String sessionKey) {
+        return readThrough(
+                drivers,
+                sessionKey,
+                () -> delegate.getDriversSnapshot(sessionKey),
+                ignored -> isFinished(sessionEndTimes.getIfPresent(sessionKey)) ? props.finishedTtl() : props.liveTtl()
+        );
+    }
+
+    /**
+     * Loads a session's drivers upstream even when they are cached and keeps them for {@code ttl}.
+     */
+    Either<RaceRetrievalError, List<Driver>> prefetchDrivers(String sessionKey, Duration ttl) {
+        return load(drivers, sessionKey, () -> delegate.getDriversSnapshot(sessionKey), ignored -> ttl).map(Cached::value);
+    }
+
+    private <K, V> Either<RaceRetrievalError, Snapshot<V>> readThrough(Cache<K, Cached<V>> cache,
+                                                                       K key,
+                                                                       Supplier<Either<RaceRetrievalError, Snapshot<V>>> loader,
+                                                                       Function<V, Duration> ttl) {
+        final Cached<V> present = cache.getIfPresent(key);
+        final Either<RaceRetrievalError, Cached<V>> cached =
+                present != null ? Either.right(present) : load(cache, key, loader, ttl);
+        final long now = ticker.read();
+        // a copy the delegate kept may already be stale when it is loaded
+        if (cached.isRight() && cached.get().isStale(now)) {
+            refreshInBackground(cache, key, loader, ttl);
+        }
+        return cached.map(entry -> new Snapshot<>(entry.value(), entry.age(now)));
+    }
+
+    private <K, V> void refreshInBackground(Cache<K, Cached<V>> cache,
+                                            K key,
+                                            Supplier<Either<RaceRetrievalError, Snapshot<V>>> loader,
+                                            Function<V, Duration> ttl) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                try {
+                    LookupPriority.BACKGROUND.run(() -> load(cache, key, loader, ttl));
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private <K, V> Either<RaceRetrievalError, Cached<V>> load(Cache<K, Cached<V>> cache,
+                                                              K key,
+                                                              Supplier<Either<RaceRetrievalError, Snapshot<V>>> loader,
+                                                              Function<V, Duration> ttl) {
+        return loader.get().map(snapshot -> {
+            final long now = ticker.read();
+            final Duration entryTtl = ttl.apply(snapshot.value());
+            final long fetchedAtNanos = now - snapshot.age().toNanos();
+            // live data ages from its upstream fetch; finished sessions and pins do not change, so they count from now
+            final long freshSinceNanos = entryTtl.equals(props.liveTtl()) ? fetchedAtNanos : now;
+            final Cached<V> entry = new Cached<>(snapshot.value(), entryTtl, fetchedAtNanos, freshSinceNanos);
+            cache.put(key, entry);
+            return entry;
+        });
+    }
+
+    private void rememberSessionEndTimes(List<Event> sessions) {
+        sessions.stream()
+                .filter(session -> session.eventId() != null && session.endTime() != null)
+                .forEach(session -> sessionEndTimes.put(session.eventId(), session.endTime()));
+    }
+
+    private Duration eventsTtl(List<Event> sessions) {
+        final boolean allFinished = !sessions.isEmpty() && sessions.stream().map(Event::endTime).allMatch(this::isFinished);
+        return allFinished ? props.finishedTtl() : props.liveTtl();
+    }
+
+    private boolean isFinished(OffsetDateTime endTime) {
+        return endTime != null && endTime.toInstant().isBefore(clock.instant());
+    }
+
+    private <K, V> Cache<K, Cached<V>> newCache() {
+        return Caffeine.newBuilder()
+                .ticker(ticker)
+                .maximumSize(props.maximumSize())
+                .expireAfter(new PerEntryTtl<K, V>(props.maxStaleness()))
+                .recordStats()
+                .build();
+    }
+
+    private record EventsQuery(Integer year, String country, String sessionType) {
+    }
+
+    private record Cached<V>(V value, Duration ttl, long fetchedAtNanos, long freshSinceNanos) {
+
+        Duration age(long nowNanos) {
+            return Duration.ofNanos(nowNanos - fetchedAtNanos);
+        }
+
+        boolean isStale(long nowNanos) {
+            return nowNanos - freshSinceNanos > ttl.toNanos();
+        }
+    }
+
+    private record PerEntryTtl<K, V>(Duration maxStaleness) implements Expiry<K, Cached<V>> {
+
+        @Override
+        public long expireAfterCreate(K key, Cached<V> value, long currentTime) {
+            return Math.max(0, value.ttl().plus(maxStaleness).toNanos() - (currentTime - value.freshSinceNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(K key, Cached<V> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(K key, Cached<V> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
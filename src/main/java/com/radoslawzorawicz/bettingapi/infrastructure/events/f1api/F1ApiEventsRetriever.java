@@ -2,11 +2,10 @@ package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
 
 import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
 import com.radoslawzorawicz.bettingapi.domain.events.model.Event;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
 import com.radoslawzorawicz.bettingapi.domain.events.model.RaceEventsReadRepository;
 import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
 import io.github.resilience4j.core.IntervalFunction;
-import io.github.resilience4j.ratelimiter.RateLimiter;
-import io.github.resilience4j.ratelimiter.RateLimiterConfig;
 import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryConfig;
 import io.vavr.control.Either;
@@ -20,9 +19,10 @@ import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.util.UriBuilder;
 
-import java.time.Duration;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -37,27 +37,24 @@ class F1ApiEventsRetriever implements RaceEventsReadRepository {
     private static final Set<HttpStatusCode> RETRYABLE_HTTP_ERRORS = Set.copyOf(
             EnumSet.of(INTERNAL_SERVER_ERROR, BAD_GATEWAY, SERVICE_UNAVAILABLE, GATEWAY_TIMEOUT)
     );
+    private static final ParameterizedTypeReference<List<F1ApiSessionDto>> SESSIONS = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<List<F1ApiDriverDto>> DRIVERS = new ParameterizedTypeReference<>() {
+    };
     private final RestClient restClient;
-    private final RateLimiter rateLimiter;
+    private final OpenF1Budget budget;
     private final Retry retry;
+    private final SingleFlight<OpenF1Request, Either<RaceRetrievalError, List<?>>> inFlightCalls = new SingleFlight<>();
 
     F1ApiEventsRetriever(RestClient.Builder restClientBuilder, OpenF1Properties props) {
+        this(restClientBuilder, props, new QueueingOpenF1Budget(new LocalOpenF1Budget(props.rate()), props.rate()));
+    }
+
+    F1ApiEventsRetriever(RestClient.Builder restClientBuilder, OpenF1Properties props, OpenF1Budget budget) {
         this.restClient = restClientBuilder
                 .baseUrl(props.baseUrl())
                 .build();
-
-        final var rateLimiterConfig = RateLimiterConfig.custom()
-                .limitForPeriod(props.rate().limitForPeriod())
-                .limitRefreshPeriod(Duration.ofSeconds(props.rate().limitRefreshSeconds()))
-                .timeoutDuration(Duration.ZERO)
-                .drainPermissionsOnResult(executionResult -> executionResult.fold(
-                                error -> error instanceof RestClientResponseException responseException && responseException.getStatusCode().isSameCodeAs(TOO_MANY_REQUESTS),
-                                ignored -> false
-                        )
-                )
-                .build();
-
-        this.rateLimiter = RateLimiter.of("openf1", rateLimiterConfig);
+        this.budget = budget;
         final var retryConfig = RetryConfig.custom()
                 .maxAttempts(props.retry().maxAttempts())
                 .intervalFunction(IntervalFunction.ofExponentialBackoff(props.retry().baseDelayMs()))
@@ -69,53 +66,29 @@ class F1ApiEventsRetriever implements RaceEventsReadRepository {
 
     @Override
     public Either<RaceRetrievalError, List<Event>> getEvents(Integer year, String country, String sessionType) {
-        final Supplier<List<F1ApiSessionDto>> getEvents = () -> this.restClient
-                .get()
-                .uri((UriBuilder builder) -> builder
-                        .path("/sessions")
-                        .queryParamIfPresent("year", ofNullable(year))
-                        .queryParamIfPresent("country_name", ofNullable(country))
-                        .queryParamIfPresent("session_type", ofNullable(sessionType).filter(StringUtils::isNotBlank))
-                        .build()
-                )
-                .retrieve()
-                .body(new ParameterizedTypeReference<>() {
-                });
+        final Map<String, Object> queryParams = new LinkedHashMap<>();
+        ofNullable(year).ifPresent(value -> queryParams.put("year", value));
+        ofNullable(country).ifPresent(value -> queryParams.put("country_name", value));
+        ofNullable(sessionType).filter(StringUtils::isNotBlank).ifPresent(value -> queryParams.put("session_type", value));
 
-        return executeCall(getEvents, F1ApiSessionDto::toEvent);
+        return executeCall(new OpenF1Request("/sessions", queryParams), SESSIONS, F1ApiSessionDto::toEvent);
     }
 
     @Override
     public Either<RaceRetrievalError, List<Driver>> getDrivers(String sessionKey, Integer driverId) {
-        final Supplier<List<F1ApiDriverDto>> getDrivers = () -> this.restClient
-                .get()
-                .uri((UriBuilder builder) -> builder
-                        .path("/drivers")
-                        .queryParam("session_key", sessionKey)
-                        .queryParam("driver_number", driverId)
-                        .build()
-                )
-                .retrieve()
-                .body(new ParameterizedTypeReference<>() {
-                });
+        final Map<String, Object> queryParams = new LinkedHashMap<>();
+        queryParams.put("session_key", sessionKey);
+        queryParams.put("driver_number", driverId);
 
-        return executeCall(getDrivers, F1ApiDriverDto::toDriver);
+        return executeCall(new OpenF1Request("/drivers", queryParams), DRIVERS, F1ApiDriverDto::toDriver);
     }
 
     @Override
     public Either<RaceRetrievalError, List<Driver>> getDrivers(String sessionKey) {
-        final Supplier<List<F1ApiDriverDto>> getDrivers = () -> this.restClient
-                .get()
-                .uri((UriBuilder builder) -> builder
-                        .path("/drivers")
-                        .queryParam("session_key", sessionKey)
-                        .build()
-                )
-                .retrieve()
-                .body(new ParameterizedTypeReference<>() {
-                });
+        final Map<String, Object> queryParams = new LinkedHashMap<>();
+        queryParams.put("session_key", sessionKey);
 
-        return executeCall(getDrivers, F1ApiDriverDto::toDriver);
+        return executeCall(new OpenF1Request("/drivers", queryParams), DRIVERS, F1ApiDriverDto::toDriver);
     }
 
     private boolean isRetryable(Throwable ex) {
@@ -126,9 +99,38 @@ class F1ApiEventsRetriever implements RaceEventsReadRepository {
         };
     }
 
-    private <T, U> Either<RaceRetrievalError, List<U>> executeCall(Supplier<List<T>> getDrivers, Function<T, U> mapper) {
-        final Supplier<List<T>> getWithResilience =
-                Retry.decorateSupplier(retry, RateLimiter.decorateSupplier(rateLimiter, getDrivers));
+    @SuppressWarnings("unchecked")
+    private <T, U> Either<RaceRetrievalError, List<U>> executeCall(OpenF1Request request,
+                                                                   ParameterizedTypeReference<List<T>> responseType,
+                                                                   Function<T, U> mapper) {
+        final Either<RaceRetrievalError, List<?>> result = inFlightCalls.execute(
+                request, LookupPriority.current(), () -> Either.narrow(callUpstream(request, responseType, mapper)));
+        return (Either<RaceRetrievalError, List<U>>) (Either<?, ?>) result;
+    }
+
+    private <T, U> Either<RaceRetrievalError, List<U>> callUpstream(OpenF1Request request,
+                                                                    ParameterizedTypeReference<List<T>> responseType,
+                                                                    Function<T, U> mapper) {
+        final Supplier<List<T>> get = () -> this.restClient
+                .get()
+                .uri((UriBuilder builder) -> request.toUri(builder))
+                .retrieve()
+                .body(responseType);
+        final LookupPriority priority = LookupPriority.current();
+        final Supplier<List<T>> getWithinBudget = () -> {
+            if (!budget.tryAcquire(priority)) {
+                throw new BudgetExhaustedException();
+            }
+            try {
+                return get.get();
+            } catch (RestClientResponseException responseException) {
+                if (responseException.getStatusCode().isSameCodeAs(TOO_MANY_REQUESTS)) {
+                    budget.drain();
+                }
+                throw responseException;
+            }
+        };
+        final Supplier<List<T>> getWithResilience = Retry.decorateSupplier(retry, getWithinBudget);
 
         try {
             return getWithResilience.get()
@@ -142,10 +144,18 @@ class F1ApiEventsRetriever implements RaceEventsReadRepository {
                 case TOO_MANY_REQUESTS -> Either.left(RaceRetrievalError.RATE_LIMITED);
                 default -> Either.left(RaceRetrievalError.INTERNAL_FAILURE);
             };
+        } catch (BudgetExhaustedException budgetExhausted) {
+            log.info("OpenF1 budget exhausted, {} call to {} rejected", priority, request.path());
+            return Either.left(RaceRetrievalError.RATE_LIMITED);
         } catch (Exception exception) {
             log.error("F1 API GET call failed", exception);
             return Either.left(RaceRetrievalError.INTERNAL_FAILURE);
         }
     }
 
+    private static final class BudgetExhaustedException extends RuntimeException {
+        private BudgetExhaustedException() {
+            super("OpenF1 budget exhausted", null, false, false);
+        }
+    }
 }
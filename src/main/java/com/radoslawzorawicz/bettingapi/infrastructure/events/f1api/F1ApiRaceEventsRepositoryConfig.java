@@ -1,17 +1,78 @@
 package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestClient;
 
+import java.time.Clock;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-@EnableConfigurationProperties(OpenF1Properties.class)
+
+@EnableConfigurationProperties({OpenF1Properties.class, OpenF1CacheProperties.class})
 @Configuration
 public class F1ApiRaceEventsRepositoryConfig {
 
     @Bean
-    F1ApiEventsRetriever apiRaceEventsReadRepository(RestClient.Builder restClientBuilder, OpenF1Properties props) {
-        return new F1ApiEventsRetriever(restClientBuilder, props);
+    F1ApiEventsRetriever apiRaceEventsReadRepository(RestClient.Builder restClientBuilder,
+                                                     ClientHttpRequestFactory openF1RequestFactory,
+                                                     OpenF1Properties props,
+                                                     OpenF1Budget openF1Budget,
+                                                     MeterRegistry meterRegistry) {
+        restClientBuilder.requestFactory(openF1RequestFactory);
+        final var queue = new QueueingOpenF1Budget(openF1Budget, props.rate());
+        meterRegistry.gauge("openf1.budget.waiting", queue, QueueingOpenF1Budget::waiting);
+        return new F1ApiEventsRetriever(restClientBuilder, props, queue);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.openf1.rate.scope", havingValue = "node", matchIfMissing = true)
+    OpenF1Budget localOpenF1Budget(OpenF1Properties props) {
+        return new LocalOpenF1Budget(props.rate());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.openf1.rate.scope", havingValue = "cluster")
+    OpenF1Budget jdbcOpenF1Budget(JdbcTemplate jdbcTemplate, OpenF1Properties props) {
+        return new JdbcOpenF1Budget(jdbcTemplate, props.rate());
+    }
+
+    @Bean
+    PersistedRaceEventsReadRepository persistedRaceEventsReadRepository(F1ApiEventsRetriever retriever,
+                                                                        JdbcTemplate jdbcTemplate,
+                                                                        PlatformTransactionManager transactionManager,
+                                                                        OpenF1CacheProperties cacheProps) {
+        final var catalog = new PersistedRaceEventsReadRepository(
+                retriever, jdbcTemplate, new TransactionTemplate(transactionManager), cacheProps.liveTtl(),
+                cacheProps.maxStaleness(), Clock.systemUTC()
+        );
+        catalog.load();
+        return catalog;
+    }
+
+    /**
+     * Runs background refreshes of stale cache entries; closed with the context, so that it waits for refreshes
+     * still in flight instead of letting them outlive it.
+     */
+    @Bean(destroyMethod = "close")
+    ExecutorService openF1Refresher() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("openf1-refresh-", 0).factory());
+    }
+
+    @Bean
+    @Primary
+    CachingRaceEventsReadRepository raceEventsReadRepository(PersistedRaceEventsReadRepository catalog,
+                                                             OpenF1CacheProperties cacheProps,
+                                                             MeterRegistry meterRegistry,
+                                                             ExecutorService openF1Refresher) {
+        return new CachingRaceEventsReadRepository(catalog, cacheProps, meterRegistry, openF1Refresher);
     }
 }
@@ -0,0 +1,137 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// The row is locked only by the statement that takes permits, so callers must not hold a transaction
+@Log4j2
+class JdbcOpenF1Budget implements OpenF1Budget {
+    private static final String BUDGET = "openf1";
+    private static final String TAKE = """
+            WITH bucket AS (
+                SELECT name, period, permits,
+                       floor(extract(epoch FROM clock_timestamp()) / ?)::bigint AS current_period,
+                       extract(epoch FROM clock_timestamp()) AS now_epoch
+                FROM openf1_rate_budget
+                WHERE name = ?
+                FOR UPDATE
+            ), refilled AS (
+                SELECT name, current_period, now_epoch,
+                       CASE WHEN period = current_period THEN permits ELSE ? END AS available
+                FROM bucket
+            ), granted AS (
+                SELECT name, current_period, now_epoch, available,
+                       GREATEST(LEAST(available - ?, ?), 0) AS taken
+                FROM refilled
+            )
+            UPDATE openf1_rate_budget b
+            SET period = granted.current_period, permits = granted.available - granted.taken
+            FROM granted
+            WHERE b.name = granted.name
+            RETURNING granted.taken, (granted.current_period + 1) * ? - granted.now_epoch AS seconds_left
+            """;
+    private static final String DRAIN = """
+            UPDATE openf1_rate_budget
+            SET period = floor(extract(epoch FROM clock_timestamp()) / ?)::bigint, permits = 0
+            WHERE name = ?
+            """;
+    private static final Lease NONE = new Lease(0, 0L);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int limitForPeriod;
+    private final int periodSeconds;
+    private final int backgroundReserve;
+    private final int leaseSize;
+    private final ReentrantLock leaseLock = new ReentrantLock();
+    private int leased;
+    private long leaseExpiresAtNanos;
+
+    JdbcOpenF1Budget(JdbcTemplate jdbcTemplate, OpenF1Properties.Rate rate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.limitForPeriod = rate.limitForPeriod();
+        this.periodSeconds = rate.limitRefreshSeconds();
+        this.backgroundReserve = rate.backgroundReserve();
+        this.leaseSize = rate.leaseSize();
+    }
+
+    @Override
+    public boolean tryAcquire(LookupPriority priority) {
+        if (priority == LookupPriority.BACKGROUND) {
+            return take(1, backgroundReserve).permits() > 0;
+        }
+        leaseLock.lock();
+        try {
+            if (leased > 0 && System.nanoTime() - leaseExpiresAtNanos < 0) {
+                leased--;
+                return true;
+            }
+            final Lease lease = take(leaseSize, 0);
+            leased = Math.max(lease.permits() - 1, 0);
+            leaseExpiresAtNanos = System.nanoTime() + lease.validForNanos();
+            return lease.permits() > 0;
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    @Override
+    public int available(LookupPriority priority) {
+        if (priority == LookupPriority.BACKGROUND) {
+            return 0;
+        }
+        leaseLock.lock();
+        try {
+            return System.nanoTime() - leaseExpiresAtNanos < 0 ? leased : 0;
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    @Override
+    public void drain() {
+        leaseLock.lock();
+        try {
+            leased = 0;
+        } finally {
+            leaseLock.unlock();
+        }
+        try {
+            jdbcTemplate.update(DRAIN, periodSeconds, BUDGET);
+        } catch (DataAccessException e) {
+            log.warn("Could not drain the shared OpenF1 budget", e);
+        }
+    }
+
+    /**
+     * Periods are aligned to the epoch on the database clock; the local clock is close enough to wait for one.
+     */
+    @Override
+    public long nanosUntilRefill() {
+        final long periodMillis = TimeUnit.SECONDS.toMillis(periodSeconds);
+        return TimeUnit.MILLISECONDS.toNanos(periodMillis - System.currentTimeMillis() % periodMillis);
+    }
+
+    private Lease take(int wanted, int reserve) {
+        try {
+            return jdbcTemplate.queryForObject(
+                    TAKE,
+                    (rs, rowNum) -> new Lease(
+                            rs.getInt("taken"),
+                            (long) (rs.getDouble("seconds_left") * TimeUnit.SECONDS.toNanos(1))
+                    ),
+                    periodSeconds, BUDGET, limitForPeriod, reserve, wanted, periodSeconds
+            );
+        } catch (DataAccessException e) {
+            log.warn("Could not take permits from the shared OpenF1 budget", e);
+            return NONE;
+        }
+    }
+
+    private record Lease(int permits, long validForNanos) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+class LocalOpenF1Budget implements OpenF1Budget {
+    private final int limitForPeriod;
+    private final long periodNanos;
+    private final int backgroundReserve;
+    private final Ticker ticker;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long periodStartNanos;
+    private int available;
+
+    LocalOpenF1Budget(OpenF1Properties.Rate rate) {
+        this(rate, Ticker.systemTicker());
+    }
+
+    LocalOpenF1Budget(OpenF1Properties.Rate rate, Ticker ticker) {
+        this.limitForPeriod = rate.limitForPeriod();
+        this.periodNanos = TimeUnit.SECONDS.toNanos(rate.limitRefreshSeconds());
+        this.backgroundReserve = rate.backgroundReserve();
+        this.ticker = ticker;
+        this.periodStartNanos = ticker.read();
+        this.available = limitForPeriod;
+    }
+
+    @Override
+    public boolean tryAcquire(LookupPriority priority) {
+        final int reserve = priority == LookupPriority.BACKGROUND ? backgroundReserve : 0;
+        lock.lock();
+        try {
+            refill();
+            if (available <= reserve) {
+                return false;
+            }
+            available--;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int available(LookupPriority priority) {
+        final int reserve = priority == LookupPriority.BACKGROUND ? backgroundReserve : 0;
+        lock.lock();
+        try {
+            refill();
+            return Math.max(available - reserve, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void drain() {
+        lock.lock();
+        try {
+            refill();
+            available = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long nanosUntilRefill() {
+        lock.lock();
+        try {
+            refill();
+            return periodStartNanos + periodNanos - ticker.read();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void refill() {
+        final long elapsed = ticker.read() - periodStartNanos;
+        if (elapsed >= periodNanos) {
+            periodStartNanos += elapsed - elapsed % periodNanos;
+            available = limitForPeriod;
+        }
+    }
+}
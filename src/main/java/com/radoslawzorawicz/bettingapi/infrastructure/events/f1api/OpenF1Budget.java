@@ -0,0 +1,27 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+
+interface OpenF1Budget {
+
+    /**
+     * Takes a permit without waiting. {@link LookupPriority#BACKGROUND} calls only get one while more than the
+     * background reserve is left in the current period.
+     */
+    boolean tryAcquire(LookupPriority priority);
+
+    /**
+     * Permits {@code priority} could take right now. A shared budget only counts those this node already holds.
+     */
+    int available(LookupPriority priority);
+
+    /**
+     * Gives up what is left of the current period, called when OpenF1 answered 429 anyway.
+     */
+    void drain();
+
+    /**
+     * Time until the next period starts and permits are available again.
+     */
+    long nanosUntilRefill();
+}
@@ -0,0 +1,14 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.openf1.cache")
+record OpenF1CacheProperties(
+        long maximumSize,
+        Duration finishedTtl,
+        Duration liveTtl,
+        Duration maxStaleness
+) {
+}
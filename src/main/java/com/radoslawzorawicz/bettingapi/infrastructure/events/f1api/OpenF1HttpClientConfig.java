@@ -0,0 +1,90 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.eclipse.jetty.client.AbstractConnectionPool;
+import org.eclipse.jetty.client.Destination;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.transport.HttpClientConnectionFactory;
+import org.eclipse.jetty.client.transport.HttpClientTransportDynamic;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.transport.ClientConnectionFactoryOverHTTP2;
+import org.eclipse.jetty.io.ClientConnector;
+import org.eclipse.jetty.io.ConnectionStatistics;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.function.ToIntFunction;
+
+
+@EnableConfigurationProperties(OpenF1HttpProperties.class)
+@Configuration
+public class OpenF1HttpClientConfig {
+
+    /**
+     * Dedicated Jetty client for OpenF1. Over TLS it negotiates HTTP/2 through ALPN, so concurrent calls are
+     * multiplexed on one connection, and falls back to pooled keep-alive HTTP/1.1 connections. Gzip responses
+     * are decoded by Jetty, which also sends the matching {@code Accept-Encoding}.
+     * <p>
+     * With virtual threads enabled the client keeps its selectors on platform threads and runs the blocking tasks
+     * it hands out on virtual threads, like the request threads calling it.
+     */
+    @Bean(destroyMethod = "stop")
+    HttpClient openF1HttpClient(OpenF1HttpProperties props,
+                                Environment environment,
+                                MeterRegistry meterRegistry) throws Exception {
+        final var connector = new ClientConnector();
+        final var http2 = new ClientConnectionFactoryOverHTTP2.HTTP2(new HTTP2Client(connector));
+        final var httpClient = new HttpClient(
+                new HttpClientTransportDynamic(connector, HttpClientConnectionFactory.HTTP11, http2)
+        );
+        httpClient.setMaxConnectionsPerDestination(props.maxConnectionsPerDestination());
+        httpClient.setMaxRequestsQueuedPerDestination(props.maxRequestsQueuedPerDestination());
+        httpClient.setIdleTimeout(props.idleTimeout().toMillis());
+        httpClient.setConnectTimeout(props.connectTimeout().toMillis());
+        if (Threading.VIRTUAL.isActive(environment)) {
+            final QueuedThreadPool threadPool = new QueuedThreadPool();
+            threadPool.setName("openf1-client");
+            threadPool.setVirtualThreadsExecutor(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("openf1-client-vt-", 0).factory())
+            );
+            httpClient.setExecutor(threadPool);
+        }
+        final var connectionStatistics = new ConnectionStatistics();
+        httpClient.addBean(connectionStatistics);
+        httpClient.start();
+
+        Map.<String, ToIntFunction<AbstractConnectionPool>>of(
+                "active", AbstractConnectionPool::getActiveConnectionCount,
+                "idle", AbstractConnectionPool::getIdleConnectionCount,
+                "pending", AbstractConnectionPool::getPendingConnectionCount
+        ).forEach((state, count) -> Gauge.builder("openf1.http.connections", httpClient, client -> connections(client, count))
+                .tag("state", state)
+                .register(meterRegistry));
+        FunctionCounter.builder("openf1.http.connections.opened", connectionStatistics, ConnectionStatistics::getConnectionsTotal)
+                .register(meterRegistry);
+        return httpClient;
+    }
+
+    @Bean
+    ClientHttpRequestFactory openF1RequestFactory(HttpClient openF1HttpClient, OpenF1HttpProperties props) {
+        return new OpenF1RouteRequestFactory(openF1HttpClient, props);
+    }
+
+    private static int connections(HttpClient httpClient, ToIntFunction<AbstractConnectionPool> count) {
+        return httpClient.getDestinations().stream()
+                .map(Destination::getConnectionPool)
+                .filter(AbstractConnectionPool.class::isInstance)
+                .map(AbstractConnectionPool.class::cast)
+                .mapToInt(count)
+                .sum();
+    }
+}
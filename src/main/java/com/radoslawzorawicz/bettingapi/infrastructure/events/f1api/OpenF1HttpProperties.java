@@ -0,0 +1,20 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "app.openf1.http")
+record OpenF1HttpProperties(
+        int maxConnectionsPerDestination,
+        int maxRequestsQueuedPerDestination,
+        Duration idleTimeout,
+        Duration connectTimeout,
+        Duration readTimeout,
+        Map<String, Duration> routeReadTimeouts
+) {
+    OpenF1HttpProperties {
+        routeReadTimeouts = routeReadTimeouts == null ? Map.of() : Map.copyOf(routeReadTimeouts);
+    }
+}
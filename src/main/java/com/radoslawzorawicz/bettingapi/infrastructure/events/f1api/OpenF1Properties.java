@@ -2,13 +2,18 @@ package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "app.openf1")
 record OpenF1Properties(
         String baseUrl,
         Rate rate,
         Retry retry
 ) {
-    record Rate(int limitForPeriod, int limitRefreshSeconds) {
+    record Rate(int limitForPeriod, int limitRefreshSeconds, String scope, int backgroundReserve, int leaseSize, Queue queue) {
+    }
+
+    record Queue(int capacity, Duration placementMaxWait, Duration browsingMaxWait, Duration backgroundMaxWait) {
     }
 
     record Retry(int maxAttempts, long baseDelayMs, double multiplier, double jitterFactor, long maxDelayMs) {
@@ -0,0 +1,17 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import org.springframework.web.util.UriBuilder;
+
+import java.net.URI;
+import java.util.Map;
+
+record OpenF1Request(
+        String path,
+        Map<String, Object> queryParams
+) {
+    URI toUri(UriBuilder builder) {
+        builder.path(path);
+        queryParams.forEach((name, value) -> builder.queryParam(name, value));
+        return builder.build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JettyClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toUnmodifiableMap;
+
+class OpenF1RouteRequestFactory implements ClientHttpRequestFactory {
+    private final Map<String, ClientHttpRequestFactory> routes;
+    private final ClientHttpRequestFactory fallback;
+
+    OpenF1RouteRequestFactory(HttpClient httpClient, OpenF1HttpProperties props) {
+        this.routes = props.routeReadTimeouts().entrySet().stream()
+                .collect(toUnmodifiableMap(Map.Entry::getKey, route -> requestFactory(httpClient, route.getValue())));
+        this.fallback = requestFactory(httpClient, props.readTimeout());
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        final String path = uri.getPath();
+        return routes.getOrDefault(path.substring(path.lastIndexOf('/') + 1), fallback).createRequest(uri, httpMethod);
+    }
+
+    private static ClientHttpRequestFactory requestFactory(HttpClient httpClient, Duration readTimeout) {
+        final var requestFactory = new JettyClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+}
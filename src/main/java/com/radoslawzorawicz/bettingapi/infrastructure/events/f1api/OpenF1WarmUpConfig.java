@@ -0,0 +1,32 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.service.OddsBook;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(OpenF1WarmUpProperties.class)
+@ConditionalOnProperty(name = "app.openf1.warm-up.enabled", havingValue = "true")
+class OpenF1WarmUpConfig {
+
+    @Bean
+    UpcomingSessionsWarmer upcomingSessionsWarmer(CachingRaceEventsReadRepository catalog,
+                                                  OddsBook oddsBook,
+                                                  OpenF1Properties openF1Props,
+                                                  OpenF1WarmUpProperties props) {
+        final Duration spacing = Duration.ofSeconds(openF1Props.rate().limitRefreshSeconds()).dividedBy(props.callsPerPeriod());
+        return new UpcomingSessionsWarmer(catalog, oddsBook, props.horizon(), props.pinTtl(), spacing, Clock.systemUTC());
+    }
+
+    @Bean
+    UpcomingSessionsWarmUp upcomingSessionsWarmUp(UpcomingSessionsWarmer warmer, OpenF1WarmUpProperties props) {
+        return new UpcomingSessionsWarmUp(warmer, props.startupTimeout(), Duration.ofMillis(props.intervalMs()), Clock.systemUTC());
+    }
+}
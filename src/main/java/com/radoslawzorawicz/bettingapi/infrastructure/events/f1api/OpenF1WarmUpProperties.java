@@ -0,0 +1,16 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.openf1.warm-up")
+record OpenF1WarmUpProperties(
+        boolean enabled,
+        Duration horizon,
+        long intervalMs,
+        Duration pinTtl,
+        int callsPerPeriod,
+        Duration startupTimeout
+) {
+}
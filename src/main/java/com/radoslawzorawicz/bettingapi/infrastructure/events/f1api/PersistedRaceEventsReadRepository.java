@@ -0,0 +1,339 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Event;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceEventsReadRepository;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Snapshot;
+import io.vavr.control.Either;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+// A copy fetched after all of its sessions ended is final, any other is served with its age until refreshAfter
+// plus maxStaleness
+@Log4j2
+class PersistedRaceEventsReadRepository implements RaceEventsReadRepository {
+    private static final String UPSERT_SESSION = """
+            INSERT INTO catalog_sessions (session_key, name, session_type, year, country, start_time, end_time, fetched_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (session_key) DO UPDATE
+            SET name = EXCLUDED.name,
+                session_type = EXCLUDED.session_type,
+                year = EXCLUDED.year,
+                country = EXCLUDED.country,
+                start_time = EXCLUDED.start_time,
+                end_time = EXCLUDED.end_time,
+                fetched_at = EXCLUDED.fetched_at
+            """;
+    private static final String UPSERT_QUERY = """
+            INSERT INTO catalog_session_queries (query_key, session_keys, fetched_at)
+            VALUES (?, ?, ?)
+            ON CONFLICT (query_key) DO UPDATE
+            SET session_keys = EXCLUDED.session_keys, fetched_at = EXCLUDED.fetched_at
+            """;
+    private static final String UPSERT_DRIVER_LIST = """
+            INSERT INTO catalog_driver_lists (session_key, fetched_at)
+            VALUES (?, ?)
+            ON CONFLICT (session_key) DO UPDATE
+            SET fetched_at = EXCLUDED.fetched_at
+            """;
+    private static final String SELECT_SESSIONS =
+            "SELECT session_key, name, session_type, year, country, start_time, end_time, fetched_at FROM catalog_sessions";
+    private static final String SELECT_QUERIES = "SELECT query_key, session_keys, fetched_at FROM catalog_session_queries";
+    private static final String SELECT_DRIVERS = """
+            SELECT l.session_key, l.fetched_at, d.position, d.driver_number, d.full_name, d.team_name
+            FROM catalog_driver_lists l
+            LEFT JOIN catalog_drivers d ON d.session_key = l.session_key
+            """;
+
+    private final RaceEventsReadRepository upstream;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transaction;
+    private final Duration refreshAfter;
+    private final Duration maxStaleness;
+    private final Clock clock;
+    private final Map<String, Fetched<Event>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Fetched<List<String>>> sessionQueries = new ConcurrentHashMap<>();
+    private final Map<String, Fetched<List<Driver>>> drivers = new ConcurrentHashMap<>();
+
+    PersistedRaceEventsReadRepository(RaceEventsReadRepository upstream,
+                                      JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transaction,
+                                      Duration refreshAfter,
+                                      Duration maxStaleness,
+                                      Clock clock) {
+        this.upstream = upstream;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = transaction;
+        this.refreshAfter = refreshAfter;
+        this.maxStaleness = maxStaleness;
+        this.clock = clock;
+    }
+
+    void load() {
+        loadSessions("");
+        loadQueries("");
+        loadDriverLists("");
+        log.info("Loaded {} sessions, {} session lists and {} driver lists of the event catalog",
+                sessions.size(), sessionQueries.size(), drivers.size());
+    }
+
+    @Override
+    public Either<RaceRetrievalError, List<Event>> getEvents(Integer year, String country, String sessionType) {
+        return getEventsSnapshot(year, country, sessionType).map(Snapshot::value);
+    }
+
+    @Override
+    public Either<RaceRetrievalError, Snapshot<List<Event>>> getEventsSnapshot(Integer year, String country, String sessionType) {
+        final String queryKey = queryKey(year, country, sessionType);
+        return serve(
+                () -> sessionsOf(storedQuery(queryKey)),
+                () -> sessionsOf(reloadQuery(queryKey)),
+                stored -> stored.value().stream().map(Event::eventId).toList(),
+                () -> upstream.getEvents(year, country, sessionType).peek(fetched -> storeSessions(queryKey, fetched))
+        );
+    }
+
+    @Override
+    public Either<RaceRetrievalError, List<Driver>> getDrivers(String sessionKey, Integer driverId) {
+        return getDrivers(sessionKey)
+                .map(sessionDrivers -> sessionDrivers.stream()
+                        .filter(driver -> Objects.equals(driver.driverNumber(), driverId))
+                        .toList());
+    }
+
+    @Override
+    public Either<RaceRetrievalError, List<Driver>> getDrivers(String sessionKey) {
+        return getDriversSnapshot(sessionKey).map(Snapshot::value);
+    }
+
+    @Override
+    public Either<RaceRetrievalError, Snapshot<List<Driver>>> getDriversSnapshot(String sessionKey) {
+        return serve(
+                () -> storedDrivers(sessionKey),
+                () -> reloadDrivers(sessionKey),
+                ignored -> List.of(sessionKey),
+                () -> upstream.getDrivers(sessionKey).peek(fetched -> storeDrivers(sessionKey, fetched))
+        );
+    }
+
+    private <V> Either<RaceRetrievalError, Snapshot<V>> serve(Supplier<Fetched<V>> stored,
+                                                              Supplier<Fetched<V>> reload,
+                                                              Function<Fetched<V>, List<String>> sessionKeys,
+                                                              Supplier<Either<RaceRetrievalError, V>> fetch) {
+        final Fetched<V> copy = stored.get();
+        if (copy == null) {
+            return fetch.get().map(Snapshot::fresh);
+        }
+        if (isReusable(copy.fetchedAt(), sessionKeys.apply(copy))) {
+            return Either.right(snapshot(copy));
+        }
+        // a stale copy is handed to the cache above, which serves it with its age and refreshes it in the
+        // background; that refresh, or a copy too old to serve, goes on to a newer copy of another node or OpenF1
+        if (LookupPriority.current() != LookupPriority.BACKGROUND && !isExpired(copy.fetchedAt())) {
+            return Either.right(snapshot(copy));
+        }
+        final Fetched<V> newer = reload.get();
+        final boolean storedByOtherNode = newer != null
+                && newer.fetchedAt().isAfter(copy.fetchedAt())
+                && isReusable(newer.fetchedAt(), sessionKeys.apply(newer));
+        return storedByOtherNode ? Either.right(snapshot(newer)) : fetch.get().map(Snapshot::fresh);
+    }
+
+    private Fetched<List<String>> storedQuery(String queryKey) {
+        final Fetched<List<String>> inMemory = sessionQueries.get(queryKey);
+        return inMemory != null && hasSessions(inMemory) ? inMemory : reloadQuery(queryKey);
+    }
+
+    private Fetched<List<Event>> sessionsOf(Fetched<List<String>> query) {
+        return query == null
+                ? null
+                : new Fetched<>(query.value().stream().map(sessions::get).map(Fetched::value).toList(), query.fetchedAt());
+    }
+
+    private Fetched<List<Driver>> storedDrivers(String sessionKey) {
+        final Fetched<List<Driver>> inMemory = drivers.get(sessionKey);
+        return inMemory != null ? inMemory : reloadDrivers(sessionKey);
+    }
+
+    private Fetched<List<String>> reloadQuery(String queryKey) {
+        try {
+            loadQueries(" WHERE query_key = ?", queryKey);
+            final Fetched<List<String>> query = sessionQueries.get(queryKey);
+            if (query == null) {
+                return null;
+            }
+            loadSessions(" WHERE session_key = ANY (?)", (Object) query.value().toArray(String[]::new));
+            return hasSessions(query) ? query : null;
+        } catch (DataAccessException e) {
+            log.warn("Could not read sessions of query {}", queryKey, e);
+            return null;
+        }
+    }
+
+    private Fetched<List<Driver>> reloadDrivers(String sessionKey) {
+        try {
+            loadDriverLists(" WHERE l.session_key = ?", sessionKey);
+            return drivers.get(sessionKey);
+        } catch (DataAccessException e) {
+            log.warn("Could not read drivers of session {}", sessionKey, e);
+            return null;
+        }
+    }
+
+    private void loadSessions(String where, Object... args) {
+        jdbcTemplate.query(
+                SELECT_SESSIONS + where,
+                rs -> {
+                    final String sessionKey = rs.getString("session_key");
+                    keepNewer(sessions, sessionKey, new Fetched<>(
+                            new Event(
+                                    sessionKey,
+                                    rs.getString("name"),
+                                    rs.getString("session_type"),
+                                    rs.getInt("year"),
+                                    rs.getString("country"),
+                                    rs.getObject("start_time", OffsetDateTime.class),
+                                    rs.getObject("end_time", OffsetDateTime.class)
+                            ),
+                            rs.getObject("fetched_at", OffsetDateTime.class).toInstant()
+                    ));
+                },
+                args
+        );
+    }
+
+    private void loadQueries(String where, Object... args) {
+        jdbcTemplate.query(
+                SELECT_QUERIES + where,
+                rs -> {
+                    keepNewer(sessionQueries, rs.getString("query_key"), new Fetched<>(
+                            List.of((String[]) rs.getArray("session_keys").getArray()),
+                            rs.getObject("fetched_at", OffsetDateTime.class).toInstant()
+                    ));
+                },
+                args
+        );
+    }
+
+    private void loadDriverLists(String where, Object... args) {
+        final Map<String, Fetched<List<Driver>>> driverLists = new HashMap<>();
+        jdbcTemplate.query(SELECT_DRIVERS + where + " ORDER BY l.session_key, d.position", rs -> {
+            final Instant fetchedAt = rs.getObject("fetched_at", OffsetDateTime.class).toInstant();
+            final Fetched<List<Driver>> driverList = driverLists.computeIfAbsent(
+                    rs.getString("session_key"),
+                    ignored -> new Fetched<>(new ArrayList<>(), fetchedAt)
+            );
+            if (rs.getObject("position") != null) {
+                driverList.value().add(new Driver(
+                        rs.getObject("driver_number", Integer.class),
+                        rs.getString("full_name"),
+                        rs.getString("team_name")
+                ));
+            }
+        }, args);
+        driverLists.forEach((sessionKey, driverList) ->
+                keepNewer(drivers, sessionKey, new Fetched<>(List.copyOf(driverList.value()), driverList.fetchedAt())));
+    }
+
+    private boolean hasSessions(Fetched<List<String>> query) {
+        return query.value().stream().allMatch(sessions::containsKey);
+    }
+
+    private boolean isReusable(Instant fetchedAt, List<String> sessionKeys) {
+        return fetchedAt.plus(refreshAfter).isAfter(clock.instant()) || allEndedBefore(sessionKeys, fetchedAt);
+    }
+
+    private boolean isExpired(Instant fetchedAt) {
+        return !fetchedAt.plus(refreshAfter).plus(maxStaleness).isAfter(clock.instant());
+    }
+
+    private <V> Snapshot<V> snapshot(Fetched<V> copy) {
+        return new Snapshot<>(copy.value(), Duration.between(copy.fetchedAt(), clock.instant()));
+    }
+
+    private boolean allEndedBefore(List<String> sessionKeys, Instant fetchedAt) {
+        return !sessionKeys.isEmpty() && sessionKeys.stream()
+                .map(sessions::get)
+                .allMatch(session -> session != null
+                        && session.value().endTime() != null
+                        && session.value().endTime().toInstant().isBefore(fetchedAt));
+    }
+
+    private void storeSessions(String queryKey, List<Event> fetched) {
+        if (fetched.stream().anyMatch(session -> session.eventId() == null)) {
+            return;
+        }
+        final Instant fetchedAt = clock.instant();
+        final List<String> sessionKeys = fetched.stream().map(Event::eventId).toList();
+        fetched.forEach(session -> keepNewer(sessions, session.eventId(), new Fetched<>(session, fetchedAt)));
+        keepNewer(sessionQueries, queryKey, new Fetched<>(sessionKeys, fetchedAt));
+        try {
+            transaction.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPSERT_SESSION, fetched.stream()
+                        .map(session -> new Object[]{
+                                session.eventId(), session.name(), session.sessionType(), session.year(), session.country(),
+                                session.startTime(), session.endTime(), utc(fetchedAt)
+                        })
+                        .toList());
+                jdbcTemplate.update(UPSERT_QUERY, queryKey, sessionKeys.toArray(String[]::new), utc(fetchedAt));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not persist sessions of query {}", queryKey, e);
+        }
+    }
+
+    private void storeDrivers(String sessionKey, List<Driver> fetched) {
+        final Instant fetchedAt = clock.instant();
+        keepNewer(drivers, sessionKey, new Fetched<>(fetched, fetchedAt));
+        try {
+            transaction.executeWithoutResult(status -> {
+                jdbcTemplate.update(UPSERT_DRIVER_LIST, sessionKey, utc(fetchedAt));
+                jdbcTemplate.update("DELETE FROM catalog_drivers WHERE session_key = ?", sessionKey);
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO catalog_drivers (session_key, position, driver_number, full_name, team_name) VALUES (?, ?, ?, ?, ?)",
+                        IntStream.range(0, fetched.size())
+                                .mapToObj(i -> new Object[]{
+                                        sessionKey, i, fetched.get(i).driverNumber(), fetched.get(i).fullName(), fetched.get(i).teamName()
+                                })
+                                .toList()
+                );
+            });
+        } catch (DataAccessException e) {
+            log.warn("Could not persist drivers of session {}", sessionKey, e);
+        }
+    }
+
+    private static <T> void keepNewer(Map<String, Fetched<T>> copies, String key, Fetched<T> copy) {
+        copies.merge(key, copy, (current, candidate) -> candidate.fetchedAt().isBefore(current.fetchedAt()) ? current : candidate);
+    }
+
+    private static String queryKey(Integer year, String country, String sessionType) {
+        return Objects.toString(year, "") + '|' + Objects.toString(country, "") + '|' + Objects.toString(sessionType, "");
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private record Fetched<T>(T value, Instant fetchedAt) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Only the head of the queue takes permits, so a caller of a higher priority than the head goes first
+class QueueingOpenF1Budget implements OpenF1Budget {
+    private static final long MIN_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final OpenF1Budget budget;
+    private final int limitForPeriod;
+    private final long periodNanos;
+    private final int capacity;
+    private final Ticker ticker;
+    private final Map<LookupPriority, Long> maxWaitNanos = new EnumMap<>(LookupPriority.class);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition headChanged = lock.newCondition();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparing(Waiter::priority).thenComparingLong(Waiter::arrival)
+    );
+    private volatile LookupPriority headPriority;
+    private long arrivals;
+
+    QueueingOpenF1Budget(OpenF1Budget budget, OpenF1Properties.Rate rate) {
+        this(budget, rate, Ticker.systemTicker());
+    }
+
+    QueueingOpenF1Budget(OpenF1Budget budget, OpenF1Properties.Rate rate, Ticker ticker) {
+        this.budget = budget;
+        this.limitForPeriod = rate.limitForPeriod();
+        this.periodNanos = TimeUnit.SECONDS.toNanos(rate.limitRefreshSeconds());
+        this.capacity = rate.queue().capacity();
+        this.ticker = ticker;
+        maxWaitNanos.put(LookupPriority.PLACEMENT, rate.queue().placementMaxWait().toNanos());
+        maxWaitNanos.put(LookupPriority.BROWSING, rate.queue().browsingMaxWait().toNanos());
+        maxWaitNanos.put(LookupPriority.BACKGROUND, rate.queue().backgroundMaxWait().toNanos());
+    }
+
+    @Override
+    public boolean tryAcquire(LookupPriority priority) {
+        final long deadline = ticker.read() + maxWaitNanos.get(priority);
+        final LookupPriority head = headPriority;
+        if ((head == null || priority.compareTo(head) < 0) && budget.tryAcquire(priority)) {
+            return true;
+        }
+        final int available = budget.available(priority);
+        final long refill = budget.nanosUntilRefill();
+        final Waiter waiter;
+        lock.lock();
+        try {
+            if (waiters.size() >= capacity || !admittedBefore(deadline, priority, available, refill)) {
+                return false;
+            }
+            waiter = new Waiter(priority, arrivals++);
+            waiters.add(waiter);
+            publishHead();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            return awaitPermit(waiter, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.lock();
+            try {
+                waiters.remove(waiter);
+                publishHead();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public int available(LookupPriority priority) {
+        return budget.available(priority);
+    }
+
+    @Override
+    public void drain() {
+        budget.drain();
+    }
+
+    @Override
+    public long nanosUntilRefill() {
+        return budget.nanosUntilRefill();
+    }
+
+    int waiting() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int parked() {
+        lock.lock();
+        try {
+            return lock.getWaitQueueLength(headChanged);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The lock only guards the queue: the head asks the budget, which may be a database round trip, without it.
+     * While waiting for a refill it looks again at least every {@code MAX_PARK_NANOS}, since a shared budget can
+     * change without this node noticing.
+     */
+    private boolean awaitPermit(Waiter waiter, long deadline) throws InterruptedException {
+        while (awaitHead(waiter, deadline)) {
+            if (budget.tryAcquire(waiter.priority())) {
+                return true;
+            }
+            final long refill = Math.max(budget.nanosUntilRefill(), MIN_WAIT_NANOS);
+            if (ticker.read() + refill - deadline > 0) {
+                return false;
+            }
+            lock.lock();
+            try {
+                if (waiters.peek() == waiter) {
+                    headChanged.awaitNanos(Math.min(refill, MAX_PARK_NANOS));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return false;
+    }
+
+    private boolean awaitHead(Waiter waiter, long deadline) throws InterruptedException {
+        lock.lock();
+        try {
+            while (waiters.peek() != waiter) {
+                final long remaining = deadline - ticker.read();
+                if (remaining <= 0) {
+                    return false;
+                }
+                headChanged.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the callers ahead and this one first use up the permits left now; only those beyond them wait for refills
+    private boolean admittedBefore(long deadline, LookupPriority priority, int available, long refill) {
+        final long ahead = waiters.stream().filter(waiter -> waiter.priority().compareTo(priority) <= 0).count();
+        final long missing = ahead + 1 - available;
+        if (missing <= 0) {
+            return true;
+        }
+        final long admission = ticker.read() + refill + (missing - 1) / limitForPeriod * periodNanos;
+        return admission - deadline <= 0;
+    }
+
+    private void publishHead() {
+        final Waiter head = waiters.peek();
+        headPriority = head == null ? null : head.priority();
+        headChanged.signalAll();
+    }
+
+    private record Waiter(LookupPriority priority, long arrival) {
+    }
+}
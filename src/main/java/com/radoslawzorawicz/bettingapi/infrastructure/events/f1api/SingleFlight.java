@@ -0,0 +1,36 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+// A caller only joins a call of the same or a higher priority, so a placement never waits behind a background refresh
+final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    V execute(K key, LookupPriority priority, Supplier<V> call) {
+        final var ownCall = new Flight<V>(priority, new CompletableFuture<>());
+        final Flight<V> runningCall = inFlight.compute(key, (ignored, current) ->
+                current != null && current.priority().compareTo(priority) <= 0 ? current : ownCall);
+        if (runningCall != ownCall) {
+            return runningCall.result().join();
+        }
+
+        try {
+            final V result = call.get();
+            ownCall.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error exception) {
+            ownCall.result().completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(key, ownCall);
+        }
+    }
+
+    private record Flight<V>(LookupPriority priority, CompletableFuture<V> result) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Clock;
+import java.time.Duration;
+
+// Application runners complete before the application accepts traffic, so the first warm-up finishes before readiness
+@Log4j2
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+class UpcomingSessionsWarmUp implements ApplicationRunner {
+    private final UpcomingSessionsWarmer warmer;
+    private final Duration startupTimeout;
+    private final Duration interval;
+    private final Clock clock;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        final int warmed = warmer.warm(clock.instant().plus(startupTimeout));
+        log.info("Warmed {} upcoming session markets at startup", warmed);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.openf1.warm-up.interval-ms}",
+            fixedDelayString = "${app.openf1.warm-up.interval-ms}"
+    )
+    void refresh() {
+        warmer.warm(clock.instant().plus(interval));
+    }
+}
@@ -0,0 +1,101 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Event;
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
+import com.radoslawzorawicz.bettingapi.domain.events.service.OddsBook;
+import io.vavr.control.Either;
+import lombok.extern.log4j.Log4j2;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Log4j2
+class UpcomingSessionsWarmer {
+    private final CachingRaceEventsReadRepository catalog;
+    private final OddsBook oddsBook;
+    private final Duration horizon;
+    private final Duration pinTtl;
+    private final Duration spacing;
+    private final Clock clock;
+
+    UpcomingSessionsWarmer(CachingRaceEventsReadRepository catalog,
+                           OddsBook oddsBook,
+                           Duration horizon,
+                           Duration pinTtl,
+                           Duration spacing,
+                           Clock clock) {
+        this.catalog = catalog;
+        this.oddsBook = oddsBook;
+        this.horizon = horizon;
+        this.pinTtl = pinTtl;
+        this.spacing = spacing;
+        this.clock = clock;
+    }
+
+    /**
+     * @return number of sessions whose markets were warmed before {@code deadline}
+     */
+    int warm(Instant deadline) {
+        return LookupPriority.BACKGROUND.run(() -> warmUpcoming(deadline));
+    }
+
+    private int warmUpcoming(Instant deadline) {
+        final OffsetDateTime now = OffsetDateTime.now(clock);
+        final List<Event> sessions = upcomingSessions(now);
+        int warmed = 0;
+        for (Event session : sessions) {
+            if (!pace(deadline)) {
+                log.info("Warm-up stopped at its deadline after {} of {} sessions", warmed, sessions.size());
+                break;
+            }
+            final Either<RaceRetrievalError, List<Driver>> drivers = catalog.prefetchDrivers(session.eventId(), pinTtl);
+            if (drivers.isLeft()) {
+                log.warn("Warm-up stopped after {} of {} sessions: {}", warmed, sessions.size(), drivers.getLeft());
+                break;
+            }
+            oddsBook.marketFor(session.eventId(), drivers.get());
+            warmed++;
+        }
+        return warmed;
+    }
+
+    private List<Event> upcomingSessions(OffsetDateTime now) {
+        final OffsetDateTime until = now.plus(horizon);
+        final List<Event> sessions = new ArrayList<>();
+        for (int year = now.getYear(); year <= until.getYear(); year++) {
+            final Either<RaceRetrievalError, List<Event>> events = catalog.getEvents(year, null, null);
+            if (events.isLeft()) {
+                log.warn("Warm-up could not list sessions of {}: {}", year, events.getLeft());
+                continue;
+            }
+            events.get().stream()
+                    .filter(session -> session.eventId() != null && session.startTime() != null)
+                    .filter(session -> session.startTime().isBefore(until))
+                    .filter(session -> session.endTime() == null || session.endTime().isAfter(now))
+                    .forEach(sessions::add);
+        }
+        return sessions;
+    }
+
+    private boolean pace(Instant deadline) {
+        if (clock.instant().plus(spacing).isAfter(deadline)) {
+            return false;
+        }
+        if (spacing.isZero()) {
+            return true;
+        }
+        try {
+            Thread.sleep(spacing);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset betting-api:001-bets-user-id-id-desc runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bets_user_id_id_desc ON bets (user_id, id DESC);
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_bets_user_id_id_desc;
+
+--changeset betting-api:001-bets-pending-event-id-id runInTransaction:false
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bets_pending_event_id_id ON bets (event_id, id) WHERE status = 'PENDING';
+--rollback DROP INDEX CONCURRENTLY IF EXISTS idx_bets_pending_event_id_id;
+
+--changeset betting-api:001-accounts-user-id-unique runInTransaction:false
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS ux_accounts_user_id ON accounts (user_id);
+--rollback DROP INDEX CONCURRENTLY IF EXISTS ux_accounts_user_id;
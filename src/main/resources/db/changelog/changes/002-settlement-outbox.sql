@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+--changeset betting-api:002-settlement-outbox
+-- event_outcomes_log was never written to; it becomes the settlement outbox
+DROP TABLE IF EXISTS event_outcomes_log;
+CREATE TABLE event_outcomes_log (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    event_id VARCHAR NOT NULL,
+    winning_driver_id INT NOT NULL,
+    finished_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    status VARCHAR NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    locked_until TIMESTAMP WITH TIME ZONE,
+    last_error VARCHAR,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    CONSTRAINT ux_event_outcomes_log_event_id UNIQUE (event_id)
+);
+CREATE INDEX idx_event_outcomes_log_pending ON event_outcomes_log (id) WHERE status = 'PENDING';
+--rollback DROP TABLE event_outcomes_log;
@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset betting-api:003-settlement-checkpoints
+CREATE TABLE settlement_checkpoints (
+    event_id VARCHAR PRIMARY KEY,
+    last_bet_id INT NOT NULL,
+    settled_bets BIGINT NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+--rollback DROP TABLE settlement_checkpoints;
@@ -0,0 +1,20 @@
+--liquibase formatted sql
+
+--changeset betting-api:004-account-ledger
+CREATE TABLE account_ledger (
+    id BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    user_id INT NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    amount_cents BIGINT NOT NULL,
+    bet_id INT,
+    compacted BOOLEAN NOT NULL DEFAULT false,
+    quarantined BOOLEAN NOT NULL DEFAULT false,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    CONSTRAINT ck_account_ledger_kind CHECK (kind IN ('DEBIT', 'CREDIT')),
+    CONSTRAINT ck_account_ledger_amount_sign CHECK (
+        (kind = 'DEBIT' AND amount_cents <= 0) OR (kind = 'CREDIT' AND amount_cents >= 0)
+    )
+);
+CREATE INDEX idx_account_ledger_pending ON account_ledger (id) WHERE NOT compacted AND NOT quarantined;
+CREATE INDEX idx_account_ledger_pending_user_id ON account_ledger (user_id) WHERE NOT compacted;
+--rollback DROP TABLE account_ledger;
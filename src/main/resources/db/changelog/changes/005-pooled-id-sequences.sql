@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset betting-api:005-bets-id-sequence
+ALTER TABLE bets ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE bets_seq AS INT INCREMENT BY 50 OWNED BY bets.id;
+SELECT setval('bets_seq', (SELECT COALESCE(max(id), 0) FROM bets) + 50, false);
+ALTER TABLE bets ALTER COLUMN id SET DEFAULT nextval('bets_seq');
+--rollback ALTER TABLE bets ALTER COLUMN id DROP DEFAULT;
+--rollback DROP SEQUENCE bets_seq;
+--rollback ALTER TABLE bets ALTER COLUMN id ADD GENERATED ALWAYS AS IDENTITY;
+
+--changeset betting-api:005-accounts-id-sequence
+ALTER TABLE accounts ALTER COLUMN id DROP IDENTITY;
+CREATE SEQUENCE accounts_seq AS INT INCREMENT BY 50 OWNED BY accounts.id;
+SELECT setval('accounts_seq', (SELECT COALESCE(max(id), 0) FROM accounts) + 50, false);
+ALTER TABLE accounts ALTER COLUMN id SET DEFAULT nextval('accounts_seq');
+--rollback ALTER TABLE accounts ALTER COLUMN id DROP DEFAULT;
+--rollback DROP SEQUENCE accounts_seq;
+--rollback ALTER TABLE accounts ALTER COLUMN id ADD GENERATED ALWAYS AS IDENTITY;
@@ -0,0 +1,35 @@
+--liquibase formatted sql
+
+--changeset betting-api:006-event-catalog
+CREATE TABLE catalog_sessions (
+    session_key VARCHAR PRIMARY KEY,
+    name VARCHAR,
+    session_type VARCHAR,
+    year INT NOT NULL,
+    country VARCHAR,
+    start_time TIMESTAMP WITH TIME ZONE,
+    end_time TIMESTAMP WITH TIME ZONE,
+    fetched_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+-- session lists returned by OpenF1, keyed by the query's year, country and session type
+CREATE TABLE catalog_session_queries (
+    query_key VARCHAR PRIMARY KEY,
+    session_keys TEXT[] NOT NULL,
+    fetched_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE TABLE catalog_driver_lists (
+    session_key VARCHAR PRIMARY KEY,
+    fetched_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE TABLE catalog_drivers (
+    session_key VARCHAR NOT NULL REFERENCES catalog_driver_lists (session_key) ON DELETE CASCADE,
+    position INT NOT NULL,
+    driver_number INT,
+    full_name VARCHAR,
+    team_name VARCHAR,
+    PRIMARY KEY (session_key, position)
+);
+--rollback DROP TABLE catalog_drivers;
+--rollback DROP TABLE catalog_driver_lists;
+--rollback DROP TABLE catalog_session_queries;
+--rollback DROP TABLE catalog_sessions;
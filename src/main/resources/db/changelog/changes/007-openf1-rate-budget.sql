@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset betting-api:007-openf1-rate-budget
+-- permits left in the current period, period = floor(epoch seconds / period length)
+CREATE TABLE openf1_rate_budget (
+    name VARCHAR PRIMARY KEY,
+    period BIGINT NOT NULL,
+    permits INT NOT NULL
+);
+INSERT INTO openf1_rate_budget (name, period, permits) VALUES ('openf1', 0, 0);
+--rollback DROP TABLE openf1_rate_budget;
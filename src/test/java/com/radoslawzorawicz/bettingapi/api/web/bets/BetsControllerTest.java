@@ -1,45 +1,49 @@
 package com.radoslawzorawicz.bettingapi.api.web.bets;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.radoslawzorawicz.bettingapi.application.bets.BetsApplicationService;
 import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPage;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQuery;
 import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
 import com.radoslawzorawicz.bettingapi.domain.shared.Money;
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
 import static io.restassured.module.mockmvc.RestAssuredMockMvc.standaloneSetup;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 @ExtendWith(MockitoExtension.class)
 class BetsControllerTest {
-
     @Mock
     private BetsApplicationService betsService;
 
-    @InjectMocks
-    private BetsController controller;
-
     @BeforeEach
     void setup() {
-        standaloneSetup(controller);
+        standaloneSetup(new BetsController(betsService, new ObjectMapper()));
     }
 
     @Test
@@ -47,7 +51,7 @@ class BetsControllerTest {
         // given
         final var bet1 = new Bet(10, "E1", 44, 7, Money.of(new BigDecimal("5.00")), Bet.BetStatus.PENDING, 2);
         final var bet2 = new Bet(11, "E2", 16, 7, Money.of(new BigDecimal("3.50")), Bet.BetStatus.WON, 4);
-        given(betsService.getBets(7)).willReturn(List.of(bet1, bet2));
+        given(betsService.getBets(BetQuery.ofUser(7), 50)).willReturn(new BetPage(List.of(bet1, bet2), Option.none()));
 
         // expect
         given()
@@ -66,7 +70,85 @@ class BetsControllerTest {
             .body("[1].eventId", equalTo("E2"))
             .body("[1].amount", equalTo(3.50f))
             .body("[1].odds", equalTo(4))
-            .body("[1].status", equalTo("WON"));
+            .body("[1].status", equalTo("WON"))
+            .header("X-Next-Cursor", nullValue());
+    }
+
+    @Test
+    void shouldPassFiltersAndExposeNextCursor() {
+        // given
+        final var bet = new Bet(40, "E1", 44, 7, Money.of(new BigDecimal("5.00")), Bet.BetStatus.PENDING, 2);
+        given(betsService.getBets(new BetQuery(7, Bet.BetStatus.PENDING, "E1", 41), 1))
+                .willReturn(new BetPage(List.of(bet), Option.of(40)));
+
+        // expect
+        given()
+            .header("X-USER-ID", 7)
+            .queryParam("limit", 1)
+            .queryParam("after", 41)
+            .queryParam("status", "PENDING")
+            .queryParam("event_id", "E1")
+        .when()
+            .get("/bets")
+        .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", equalTo("40"))
+            .body("$.size()", equalTo(1))
+            .body("[0].id", equalTo(40));
+    }
+
+    @ParameterizedTest
+    @MethodSource("invalidPageParams")
+    void shouldRejectInvalidPageParams(String name, String value) {
+        given()
+            .header("X-USER-ID", 7)
+            .queryParam(name, value)
+        .when()
+            .get("/bets")
+        .then()
+            .statusCode(400);
+
+        verifyNoInteractions(betsService);
+    }
+
+    private static Stream<Arguments> invalidPageParams() {
+        return Stream.of(
+                arguments("limit", "0"),
+                arguments("limit", "501"),
+                arguments("after", "-1"),
+                arguments("status", "UNKNOWN")
+        );
+    }
+
+    @Test
+    void shouldStreamBetsAsNdjson() {
+        // given
+        final var bet1 = new Bet(11, "E2", 16, 7, Money.of(new BigDecimal("3.50")), Bet.BetStatus.WON, 4);
+        final var bet2 = new Bet(10, "E1", 44, 7, Money.of(new BigDecimal("5.00")), Bet.BetStatus.PENDING, 2);
+        willAnswer(invocation -> {
+            final Consumer<Bet> action = invocation.getArgument(1);
+            action.accept(bet1);
+            action.accept(bet2);
+            return null;
+        }).given(betsService).streamBets(any(BetQuery.class), any());
+
+        // expect
+        final String body = given()
+            .header("X-USER-ID", 7)
+            .accept("application/x-ndjson")
+        .when()
+            .get("/bets")
+        .then()
+            .statusCode(200)
+            .contentType("application/x-ndjson")
+            .extract()
+            .asString();
+
+        final List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("{").contains("\"id\":11").endsWith("}");
+        assertThat(lines.get(1)).startsWith("{").contains("\"id\":10").endsWith("}");
+        assertThat(body).endsWith("\n");
     }
 
     @Test
@@ -97,7 +179,9 @@ class BetsControllerTest {
                 arguments(BetPlacementError.ACCOUNT_NOT_FOUND, 400),
                 arguments(BetPlacementError.DRIVER_MARKET_NOT_FOUND, 400),
                 arguments(BetPlacementError.INSUFFICIENT_FUNDS, 402),
-                arguments(BetPlacementError.INTERNAL_ERROR, 500)
+                arguments(BetPlacementError.INTERNAL_ERROR, 500),
+                arguments(BetPlacementError.PLACEMENT_QUEUE_FULL, 503),
+                arguments(BetPlacementError.SLIP_REJECTED, 409)
         );
     }
 
@@ -125,6 +209,104 @@ class BetsControllerTest {
             .statusCode(expectedStatus);
     }
 
+    @Test
+    void shouldCreateAllBetsOfSlip() {
+        // given
+        given(betsService.placeBets(eq(7), any(), eq(false))).willReturn(List.of(Either.right(99), Either.right(100)));
+
+        // expect
+        given()
+            .header("X-USER-ID", 7)
+            .contentType("application/json")
+            .body("""
+                  {
+                    "bets": [
+                      {"eventId": "E1", "driverId": 44, "betAmount": 10.00},
+                      {"eventId": "E1", "driverId": 16, "betAmount": 2.50}
+                    ]
+                  }
+                  """)
+        .when()
+            .post("/bets/batch")
+        .then()
+            .statusCode(201)
+            .body("$.size()", equalTo(2))
+            .body("[0].betId", equalTo(99))
+            .body("[1].betId", equalTo(100))
+            .body("[1].error", nullValue());
+    }
+
+    @Test
+    void shouldReturnPerBetResultsWhenSlipIsPartiallyPlaced() {
+        // given
+        given(betsService.placeBets(eq(7), any(), eq(false)))
+                .willReturn(List.of(Either.right(99), Either.left(BetPlacementError.DRIVER_MARKET_NOT_FOUND)));
+
+        // expect
+        given()
+            .header("X-USER-ID", 7)
+            .contentType("application/json")
+            .body("""
+                  {
+                    "bets": [
+                      {"eventId": "E1", "driverId": 44, "betAmount": 10.00},
+                      {"eventId": "E1", "driverId": 99, "betAmount": 2.50}
+                    ]
+                  }
+                  """)
+        .when()
+            .post("/bets/batch")
+        .then()
+            .statusCode(200)
+            .body("[0].betId", equalTo(99))
+            .body("[1].betId", nullValue())
+            .body("[1].error", equalTo("DRIVER_MARKET_NOT_FOUND"));
+    }
+
+    @Test
+    void shouldReturnProblemWithPerBetResultsWhenAllOrNothingSlipFails() {
+        // given
+        given(betsService.placeBets(eq(7), any(), eq(true)))
+                .willReturn(List.of(Either.left(BetPlacementError.SLIP_REJECTED), Either.left(BetPlacementError.INSUFFICIENT_FUNDS)));
+
+        // expect
+        given()
+            .header("X-USER-ID", 7)
+            .contentType("application/json")
+            .body("""
+                  {
+                    "allOrNothing": true,
+                    "bets": [
+                      {"eventId": "E1", "driverId": 44, "betAmount": 10.00},
+                      {"eventId": "E1", "driverId": 16, "betAmount": 200.00}
+                    ]
+                  }
+                  """)
+        .when()
+            .post("/bets/batch")
+        .then()
+            .statusCode(402)
+            .body("detail", equalTo("INSUFFICIENT_FUNDS"))
+            .body("bets[0].error", equalTo("SLIP_REJECTED"))
+            .body("bets[1].error", equalTo("INSUFFICIENT_FUNDS"));
+    }
+
+    @Test
+    void shouldRejectEmptySlip() {
+        given()
+            .header("X-USER-ID", 7)
+            .contentType("application/json")
+            .body("""
+                  {"bets": []}
+                  """)
+        .when()
+            .post("/bets/batch")
+        .then()
+            .statusCode(400);
+
+        verifyNoInteractions(betsService);
+    }
+
     @Test
     void shouldRejectInvalidRequest() {
         // missing eventId
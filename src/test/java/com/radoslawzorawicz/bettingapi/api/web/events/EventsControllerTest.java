@@ -3,6 +3,7 @@ package com.radoslawzorawicz.bettingapi.api.web.events;
 import com.radoslawzorawicz.bettingapi.application.events.EventsApplicationService;
 import com.radoslawzorawicz.bettingapi.domain.events.model.*;
 import io.vavr.control.Either;
+import io.vavr.control.Option;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +14,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.stream.Stream;
@@ -41,9 +43,9 @@ class EventsControllerTest {
     void shouldReturnEvents() {
         // given
         final var now = OffsetDateTime.now();
-        given(eventsService.getEvents(null, null, null)).willReturn(Either.right(List.of(
+        given(eventsService.getEventsSnapshot(null, null, null)).willReturn(Either.right(Snapshot.fresh(List.of(
                 new Event("E1", "Race 1", "R", 2024, "UK", now, now.plusHours(2))
-        )));
+        ))));
 
         // expect
         given()
@@ -59,9 +61,9 @@ class EventsControllerTest {
     void shouldReturnEventsWithAllParams() {
         // given
         final var now = OffsetDateTime.now();
-        given(eventsService.getEvents(2024, "UK", "R")).willReturn(Either.right(List.of(
+        given(eventsService.getEventsSnapshot(2024, "UK", "R")).willReturn(Either.right(Snapshot.fresh(List.of(
                 new Event("E2", "Race 2", "R", 2024, "UK", now, now.plusHours(2))
-        )));
+        ))));
 
         // expect
         given()
@@ -75,13 +77,13 @@ class EventsControllerTest {
             .body("$.size()", equalTo(1))
             .body("[0].eventId", equalTo("E2"));
 
-        then(eventsService).should().getEvents(2024, "UK", "R");
+        then(eventsService).should().getEventsSnapshot(2024, "UK", "R");
     }
 
     @ParameterizedTest
     @MethodSource("eventsErrorCases")
     void shouldMapGetEventsErrors(String sessionType, RaceRetrievalError error, int expectedStatus) {
-        given(eventsService.getEvents(any(), any(), anyString())).willReturn(Either.left(error));
+        given(eventsService.getEventsSnapshot(any(), any(), anyString())).willReturn(Either.left(error));
 
         given()
             .queryParam("session_type", sessionType)
@@ -101,9 +103,9 @@ class EventsControllerTest {
 
     @Test
     void shouldReturnDriversMarket() {
-        given(eventsService.getDriversMarket("S1")).willReturn(Either.right(List.of(
+        given(eventsService.getDriversMarketSnapshot("S1")).willReturn(Either.right(Snapshot.fresh(List.of(
                 new DriverMarket(new Driver(44, "Driver", "Team"), 3)
-        )));
+        ))));
 
         given()
         .when()
@@ -117,9 +119,24 @@ class EventsControllerTest {
             .body("[0].odds", equalTo(3));
     }
 
+    @Test
+    void shouldSendSnapshotAgeHeader() {
+        given(eventsService.getDriversMarketSnapshot("S1")).willReturn(Either.right(new Snapshot<>(List.of(
+                new DriverMarket(new Driver(44, "Driver", "Team"), 3)
+        ), Duration.ofMillis(42_900))));
+
+        given()
+        .when()
+            .get("/events/{session_id}/drivers_market", "S1")
+        .then()
+            .statusCode(200)
+            .header("Age", "42")
+            .body("[0].odds", equalTo(3));
+    }
+
     @Test
     void shouldMapDriversMarketErrors() {
-        given(eventsService.getDriversMarket("S1")).willReturn(Either.left(RaceRetrievalError.INTERNAL_FAILURE));
+        given(eventsService.getDriversMarketSnapshot("S1")).willReturn(Either.left(RaceRetrievalError.INTERNAL_FAILURE));
 
         given()
         .when()
@@ -142,7 +159,43 @@ class EventsControllerTest {
         .when()
             .post("/events/{event_id}/settlement", "E1")
         .then()
-            .statusCode(200);
+            .statusCode(202)
+            .header("Location", equalTo("/events/E1/settlement"));
+    }
+
+    @Test
+    void shouldReturnSettlementStatus() {
+        // given
+        final var now = OffsetDateTime.now();
+        given(eventsService.getSettlement("E1")).willReturn(Option.of(
+                new Settlement("E1", 44, SettlementStatus.PENDING, 1, "boom", now, now)
+        ));
+
+        // expect
+        given()
+        .when()
+            .get("/events/{event_id}/settlement", "E1")
+        .then()
+            .statusCode(200)
+            .body("eventId", equalTo("E1"))
+            .body("winningDriverId", equalTo(44))
+            .body("status", equalTo("PENDING"))
+            .body("attempts", equalTo(1))
+            .body("lastError", equalTo("boom"));
+    }
+
+    @Test
+    void shouldReturn404WhenSettlementUnknown() {
+        // given
+        given(eventsService.getSettlement("E404")).willReturn(Option.none());
+
+        // expect
+        given()
+        .when()
+            .get("/events/{event_id}/settlement", "E404")
+        .then()
+            .statusCode(404)
+            .body("detail", equalTo("SETTLEMENT_NOT_FOUND"));
     }
 
     private static Stream<Arguments> settlementErrorCases() {
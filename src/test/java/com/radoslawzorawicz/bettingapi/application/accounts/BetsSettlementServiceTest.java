@@ -5,6 +5,7 @@ import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.SettlementPolicy;
+import com.radoslawzorawicz.bettingapi.domain.bets.UserPayouts;
 import com.radoslawzorawicz.bettingapi.domain.shared.Money;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -56,8 +57,8 @@ class BetsSettlementServiceTest {
                         new Bet(1, eventId, winningDriverId, userId, Money.of(new BigDecimal("10.00")), Bet.BetStatus.WON, 2),
                         new Bet(2, eventId, winningDriverId, userId, Money.of(new BigDecimal("20.00")), Bet.BetStatus.WON, 3)
                 ));
-        given(settlementPolicy.creditsByUser(anyList()))
-                .willReturn(java.util.Map.of(userId, Money.of(new BigDecimal("80.00"))));
+        given(settlementPolicy.payoutsByUser(anyList()))
+                .willReturn(payouts(userId, 8_000));
 
         given(accountRepository.findAllByUserIdIn(any()))
                 .willReturn(List.of(new Account(5, userId, Money.of(new BigDecimal("100.00")))));
@@ -101,7 +102,7 @@ class BetsSettlementServiceTest {
                 new Bet(2, eventId, 16, 8, Money.of(new BigDecimal("3.00")), Bet.BetStatus.LOST, 4)
         );
         given(settlementPolicy.resolve(anyList(), eq(winningDriverId))).willReturn(resolved);
-        given(settlementPolicy.creditsByUser(resolved)).willReturn(java.util.Map.of());
+        given(settlementPolicy.payoutsByUser(resolved)).willReturn(new UserPayouts());
         given(accountRepository.findAllByUserIdIn(any())).willReturn(List.of());
 
         // when
@@ -132,10 +133,9 @@ class BetsSettlementServiceTest {
                 new Bet(3, eventId, winningDriverId, 202, Money.of(new BigDecimal("4.00")), Bet.BetStatus.WON, 3)
         );
         given(settlementPolicy.resolve(anyList(), eq(winningDriverId))).willReturn(resolved);
-        given(settlementPolicy.creditsByUser(resolved)).willReturn(java.util.Map.of(
-                101, Money.of(new BigDecimal("25.00")),
-                202, Money.of(new BigDecimal("12.00"))
-        ));
+        final var payouts = payouts(101, 2_500);
+        payouts.add(202, 1_200);
+        given(settlementPolicy.payoutsByUser(resolved)).willReturn(payouts);
 
         given(accountRepository.findAllByUserIdIn(Set.of(101, 202)))
                 .willReturn(List.of(
@@ -154,4 +154,10 @@ class BetsSettlementServiceTest {
                 new Account(22, 202, Money.of(new BigDecimal("62.00")))
         ));
     }
+
+    private static UserPayouts payouts(int userId, long cents) {
+        final var payouts = new UserPayouts();
+        payouts.add(userId, cents);
+        return payouts;
+    }
 }
@@ -15,7 +15,7 @@ import static org.mockito.BDDMockito.then;
 class EventFinishedTransactionalHandlerTest {
 
     @Mock
-    private BetsSettlementService betsSettlementService;
+    private SettlementEngine settlementEngine;
 
     @InjectMocks
     private EventFinishedTransactionalHandler handler;
@@ -29,7 +29,7 @@ class EventFinishedTransactionalHandlerTest {
         handler.handle(event);
 
         // then
-        then(betsSettlementService).should().settle("EVT-2", 16);
+        then(settlementEngine).should().settle("EVT-2", 16);
     }
 }
 
@@ -0,0 +1,112 @@
+package com.radoslawzorawicz.bettingapi.application.accounts;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinished;
+import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinishedHandler;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
+import io.vavr.control.Option;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementOutboxWorkerTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(10);
+
+    @Mock
+    private SettlementOutbox outbox;
+    @Mock
+    private EventFinishedHandler handler;
+
+    private SettlementOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new SettlementOutboxWorker(outbox, handler, LEASE, RETRY_DELAY, 3, 2);
+    }
+
+    @AfterEach
+    void resetMocks() {
+        reset(outbox, handler);
+    }
+
+    @Test
+    void shouldSettleClaimedEventAndMarkItDone() {
+        // given
+        final var event = new EventFinished("E1", 44, OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        given(outbox.claimNext(LEASE)).willReturn(Option.of(event));
+
+        // when
+        final boolean processed = worker.processNext();
+
+        // then
+        assertThat(processed).isTrue();
+        then(handler).should().handle(event);
+        then(outbox).should().markDone("E1");
+    }
+
+    @Test
+    void shouldRecordFailureWhenSettlementThrows() {
+        // given
+        final var event = new EventFinished("E1", 44, OffsetDateTime.parse("2024-01-01T00:00:00Z"));
+        given(outbox.claimNext(LEASE)).willReturn(Option.of(event));
+        willThrow(new IllegalStateException("db down")).given(handler).handle(event);
+
+        // when
+        worker.processNext();
+
+        // then
+        then(outbox).should().markFailed(eq("E1"), contains("db down"), eq(3), eq(RETRY_DELAY));
+        then(outbox).should(never()).markDone(anyString());
+    }
+
+    @Test
+    void shouldReturnFalseWhenOutboxIsEmpty() {
+        // given
+        given(outbox.claimNext(LEASE)).willReturn(Option.none());
+
+        // when
+        final boolean processed = worker.processNext();
+
+        // then
+        assertThat(processed).isFalse();
+        then(handler).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void shouldStopDrainingAtBatchSize() {
+        // given
+        given(outbox.claimNext(LEASE)).willReturn(
+                Option.of(new EventFinished("E1", 44, OffsetDateTime.parse("2024-01-01T00:00:00Z"))),
+                Option.of(new EventFinished("E2", 16, OffsetDateTime.parse("2024-01-01T00:00:00Z")))
+        );
+
+        // when
+        final int processed = worker.drain();
+
+        // then
+        assertThat(processed).isEqualTo(2);
+        then(outbox).should(times(2)).claimNext(LEASE);
+        then(outbox).should(never()).markFailed(anyString(), anyString(), anyInt(), any());
+    }
+}
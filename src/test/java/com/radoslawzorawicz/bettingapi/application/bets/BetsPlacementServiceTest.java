@@ -1,34 +1,38 @@
 package com.radoslawzorawicz.bettingapi.application.bets;
 
 import com.radoslawzorawicz.bettingapi.application.events.EventsApplicationService;
-import com.radoslawzorawicz.bettingapi.domain.accounts.Account;
 import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.accounts.DebitOutcome;
 import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQueryRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
 import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
 import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
 import com.radoslawzorawicz.bettingapi.domain.events.model.DriverMarket;
+import com.radoslawzorawicz.bettingapi.domain.events.model.MarketOdds;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Odds;
 import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
 import com.radoslawzorawicz.bettingapi.domain.shared.Money;
 import io.vavr.control.Either;
-import io.vavr.control.Option;
 import org.assertj.vavr.api.VavrAssertions;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -40,14 +44,20 @@ class BetsPlacementServiceTest {
     @Mock
     private BetRepository betRepository;
     @Mock
+    private BetQueryRepository betQueryRepository;
+    @Mock
     private EventsApplicationService events;
 
-    @InjectMocks
     private BetsPlacementService service;
 
+    @BeforeEach
+    void setUp() {
+        service = new BetsPlacementService(betQueryRepository, events, new TransactionalBetPlacementWriter(accountRepository, betRepository));
+    }
+
     @AfterEach
     void resetMocks() {
-        reset(accountRepository, betRepository, events);
+        reset(accountRepository, betRepository, betQueryRepository, events);
     }
 
     @Test
@@ -58,10 +68,9 @@ class BetsPlacementServiceTest {
 
         final var driver = new Driver(44, "N", "T");
         final var driverMarket = new DriverMarket(driver, 3);
-        given(events.getDriverMarket("EVT", 44)).willReturn(Either.right(List.of(driverMarket)));
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(driverMarket)));
 
-        final var userAccount = new Account(1, userId, Money.of(new BigDecimal("50.00")));
-        given(accountRepository.findByUserId(userId)).willReturn(Option.of(userAccount));
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("10.00")))).willReturn(DebitOutcome.DEBITED);
         given(betRepository.save(any(Bet.class)))
                 .willAnswer(savedBetWithId(99));
 
@@ -70,7 +79,8 @@ class BetsPlacementServiceTest {
 
         // then
         VavrAssertions.assertThat(result).containsOnRight(99);
-        verify(accountRepository).save(new Account(1, userId, Money.of(new BigDecimal("40.00"))));
+        verify(accountRepository).tryDebit(userId, Money.of(new BigDecimal("10.00")));
+        verify(accountRepository, never()).save(any());
         verify(betRepository).save(new Bet(null, "EVT", 44, userId, Money.of(new BigDecimal("10.00")), Bet.BetStatus.PENDING, 3));
     }
 
@@ -82,10 +92,9 @@ class BetsPlacementServiceTest {
 
         final var driver = new Driver(44, "N", "T");
         final var driverMarket = new DriverMarket(driver, 2);
-        given(events.getDriverMarket("EVT", 44)).willReturn(Either.right(List.of(driverMarket)));
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(driverMarket)));
 
-        final var userAccount = new Account(1, userId, Money.of(new BigDecimal("5.00")));
-        given(accountRepository.findByUserId(userId)).willReturn(Option.of(userAccount));
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("10.00")))).willReturn(DebitOutcome.INSUFFICIENT_FUNDS);
 
         // when
         final var result = service.placeBet(userId, request);
@@ -104,8 +113,8 @@ class BetsPlacementServiceTest {
 
         final var driver = new Driver(16, "N", "T");
         final var driverMarket = new DriverMarket(driver, 2);
-        given(events.getDriverMarket("EVT", 16)).willReturn(Either.right(List.of(driverMarket)));
-        given(accountRepository.findByUserId(userId)).willReturn(Option.none());
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(driverMarket)));
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("5.00")))).willReturn(DebitOutcome.ACCOUNT_NOT_FOUND);
 
         // when
         final var result = service.placeBet(userId, request);
@@ -121,7 +130,7 @@ class BetsPlacementServiceTest {
         final var userId = 7;
         final var request = new PlaceBetCommand("EVT", 44, new BigDecimal("10.00"));
 
-        given(events.getDriverMarket("EVT", 44)).willReturn(Either.right(List.of()));
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market()));
 
         // when
         final var result = service.placeBet(userId, request);
@@ -137,7 +146,7 @@ class BetsPlacementServiceTest {
         final var userId = 7;
         final var request = new PlaceBetCommand("EVT", 99, new BigDecimal("10.00"));
 
-        given(events.getDriverMarket("EVT", 99)).willReturn(Either.left(RaceRetrievalError.INTERNAL_FAILURE));
+        given(events.getMarketOdds("EVT")).willReturn(Either.left(RaceRetrievalError.INTERNAL_FAILURE));
 
         // when
         final var result = service.placeBet(userId, request);
@@ -148,58 +157,165 @@ class BetsPlacementServiceTest {
     }
 
     @Test
-    void shouldUseFirstDriverMarketEntryWhenMultipleReturned() {
+    void shouldDebitAccountBeforeSavingBet() {
         // given
-        final int userId = 5;
+        final int userId = 9;
         final var request = new PlaceBetCommand("EVT", 44, new BigDecimal("10.00"));
 
-        final var driverMarket1 = new DriverMarket(new Driver(44, "Lewis Hamilton", "Mercedes"), 5);
-        final var driverMarket2 = new DriverMarket(new Driver(44, "Lewis Hamilton", "Mercedes"), 7);
-        given(events.getDriverMarket("EVT", 44)).willReturn(Either.right(List.of(driverMarket1, driverMarket2)));
+        final var driver = new Driver(44, "N", "T");
+        final var driverMarket = new DriverMarket(driver, 3);
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(driverMarket)));
 
-        final var userAccount = new Account(1, userId, Money.of(new BigDecimal("100.00")));
-        given(accountRepository.findByUserId(userId)).willReturn(Option.of(userAccount));
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("10.00")))).willReturn(DebitOutcome.DEBITED);
 
-        given(betRepository.save(any(Bet.class))).willAnswer(savedBetWithId(123));
+        given(betRepository.save(any(Bet.class))).willAnswer(savedBetWithId(200));
 
         // when
-        final Either<BetPlacementError, Integer> result = service.placeBet(userId, request);
+        service.placeBet(userId, request);
 
         // then
-        final ArgumentCaptor<Bet> betCaptor = ArgumentCaptor.forClass(Bet.class);
+        final Bet expectedBet = new Bet(null, "EVT", 44, userId, Money.of(new BigDecimal("10.00")), Bet.BetStatus.PENDING, 3);
+        final InOrder inOrder = inOrder(accountRepository, betRepository);
+        inOrder.verify(accountRepository).tryDebit(userId, Money.of(new BigDecimal("10.00")));
+        inOrder.verify(betRepository).save(expectedBet);
+    }
+
+    @Test
+    void shouldPlaceBetSlipWithOneMarketLookupPerEventAndOneDebit() {
+        // given
+        final int userId = 7;
+        final var slip = List.of(
+                new PlaceBetCommand("EVT", 44, new BigDecimal("10.00")),
+                new PlaceBetCommand("EVT", 16, new BigDecimal("2.50")),
+                new PlaceBetCommand("EVT2", 44, new BigDecimal("1.00"))
+        );
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(
+                new DriverMarket(new Driver(44, "N", "T"), 3),
+                new DriverMarket(new Driver(16, "C", "F"), 2)
+        )));
+        given(events.getMarketOdds("EVT2")).willReturn(Either.right(market(new DriverMarket(new Driver(44, "N", "T"), 4))));
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("13.50")))).willReturn(DebitOutcome.DEBITED);
+        given(betRepository.saveAll(anyList())).willAnswer(savedBetsWithIdsFrom(100));
+
+        // when
+        final var results = service.placeBets(userId, slip, false);
 
-        VavrAssertions.assertThat(result).containsOnRight(123);
-        verify(betRepository).save(betCaptor.capture());
-        assertThat(betCaptor.getValue().odds()).isEqualTo(5);
+        // then
+        assertThat(results).containsExactly(Either.right(100), Either.right(101), Either.right(102));
+        verify(events, times(1)).getMarketOdds("EVT");
+        verify(events, times(1)).getMarketOdds("EVT2");
+        verify(accountRepository, times(1)).tryDebit(anyInt(), any());
+        verify(betRepository).saveAll(List.of(
+                new Bet(null, "EVT", 44, userId, Money.of(new BigDecimal("10.00")), Bet.BetStatus.PENDING, 3),
+                new Bet(null, "EVT", 16, userId, Money.of(new BigDecimal("2.50")), Bet.BetStatus.PENDING, 2),
+                new Bet(null, "EVT2", 44, userId, Money.of(new BigDecimal("1.00")), Bet.BetStatus.PENDING, 4)
+        ));
+        verify(betRepository, never()).save(any());
     }
 
     @Test
-    void shouldDebitAndPersistAccountBeforeSavingBet() {
+    void shouldPlaceRestOfSlipWhenOneDriverHasNoMarket() {
         // given
-        final int userId = 9;
-        final var request = new PlaceBetCommand("EVT", 44, new BigDecimal("10.00"));
+        final int userId = 7;
+        final var slip = List.of(
+                new PlaceBetCommand("EVT", 99, new BigDecimal("10.00")),
+                new PlaceBetCommand("EVT", 44, new BigDecimal("5.00"))
+        );
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(new DriverMarket(new Driver(44, "N", "T"), 3))));
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("5.00")))).willReturn(DebitOutcome.DEBITED);
+        given(betRepository.saveAll(anyList())).willAnswer(savedBetsWithIdsFrom(100));
 
-        final var driver = new Driver(44, "N", "T");
-        final var driverMarket = new DriverMarket(driver, 3);
-        given(events.getDriverMarket("EVT", 44)).willReturn(Either.right(List.of(driverMarket)));
+        // when
+        final var results = service.placeBets(userId, slip, false);
 
-        final var userAccount = new Account(1, userId, Money.of(new BigDecimal("50.00")));
-        given(accountRepository.findByUserId(userId)).willReturn(Option.of(userAccount));
+        // then
+        assertThat(results).containsExactly(Either.left(BetPlacementError.DRIVER_MARKET_NOT_FOUND), Either.right(100));
+    }
 
-        given(betRepository.save(any(Bet.class))).willAnswer(savedBetWithId(200));
+    @Test
+    void shouldRejectWholeSlipWhenAllOrNothingAndOneBetIsInvalid() {
+        // given
+        final var slip = List.of(
+                new PlaceBetCommand("EVT", 44, new BigDecimal("5.00")),
+                new PlaceBetCommand("EVT", 99, new BigDecimal("10.00"))
+        );
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(new DriverMarket(new Driver(44, "N", "T"), 3))));
 
         // when
-        service.placeBet(userId, request);
+        final var results = service.placeBets(7, slip, true);
 
         // then
-        final Account expectedDebited = new Account(1, userId, Money.of(new BigDecimal("40.00")));
-        final Bet expectedBet = new Bet(null, "EVT", 44, userId, Money.of(new BigDecimal("10.00")), Bet.BetStatus.PENDING, 3);
-        final InOrder inOrder = inOrder(accountRepository, betRepository);
-        inOrder.verify(accountRepository).save(expectedDebited);
-        inOrder.verify(betRepository).save(expectedBet);
+        assertThat(results).containsExactly(
+                Either.left(BetPlacementError.SLIP_REJECTED),
+                Either.left(BetPlacementError.DRIVER_MARKET_NOT_FOUND)
+        );
+        verifyNoInteractions(accountRepository, betRepository);
+    }
+
+    @Test
+    void shouldPlaceSlipBetByBetWhenTotalStakeIsNotCovered() {
+        // given
+        final int userId = 7;
+        final var slip = List.of(
+                new PlaceBetCommand("EVT", 44, new BigDecimal("60.00")),
+                new PlaceBetCommand("EVT", 16, new BigDecimal("60.00"))
+        );
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(
+                new DriverMarket(new Driver(44, "N", "T"), 3),
+                new DriverMarket(new Driver(16, "C", "F"), 2)
+        )));
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("120.00")))).willReturn(DebitOutcome.INSUFFICIENT_FUNDS);
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("60.00"))))
+                .willReturn(DebitOutcome.DEBITED)
+                .willReturn(DebitOutcome.INSUFFICIENT_FUNDS);
+        given(betRepository.save(any(Bet.class))).willAnswer(savedBetWithId(100));
+
+        // when
+        final var results = service.placeBets(userId, slip, false);
+
+        // then
+        assertThat(results).containsExactly(Either.right(100), Either.left(BetPlacementError.INSUFFICIENT_FUNDS));
+        verify(betRepository).save(new Bet(null, "EVT", 44, userId, Money.of(new BigDecimal("60.00")), Bet.BetStatus.PENDING, 3));
+    }
+
+    @Test
+    void shouldFailWholeSlipWhenAllOrNothingAndTotalStakeIsNotCovered() {
+        // given
+        final int userId = 7;
+        final var slip = List.of(
+                new PlaceBetCommand("EVT", 44, new BigDecimal("60.00")),
+                new PlaceBetCommand("EVT", 16, new BigDecimal("60.00"))
+        );
+        given(events.getMarketOdds("EVT")).willReturn(Either.right(market(
+                new DriverMarket(new Driver(44, "N", "T"), 3),
+                new DriverMarket(new Driver(16, "C", "F"), 2)
+        )));
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("120.00")))).willReturn(DebitOutcome.INSUFFICIENT_FUNDS);
+
+        // when
+        final var results = service.placeBets(userId, slip, true);
+
+        // then
+        assertThat(results).containsOnly(Either.left(BetPlacementError.INSUFFICIENT_FUNDS));
+        verifyNoInteractions(betRepository);
+    }
+
+    private static MarketOdds market(DriverMarket... driverMarkets) {
+        MarketOdds market = MarketOdds.price(List.of(), () -> Odds.of(1));
+        for (DriverMarket driverMarket : driverMarkets) {
+            market = market.extendedWith(List.of(driverMarket.driver()), () -> Odds.of(driverMarket.odds()));
+        }
+        return market;
     }
 
     private Answer<Bet> savedBetWithId(int id) {
         return inv -> ((Bet) inv.getArgument(0)).withId(id);
     }
+
+    private Answer<List<Bet>> savedBetsWithIdsFrom(int firstId) {
+        return inv -> {
+            final List<Bet> bets = inv.getArgument(0);
+            return IntStream.range(0, bets.size()).mapToObj(i -> bets.get(i).withId(firstId + i)).toList();
+        };
+    }
 }
@@ -0,0 +1,147 @@
+package com.radoslawzorawicz.bettingapi.application.bets;
+
+import com.radoslawzorawicz.bettingapi.application.events.EventsApplicationService;
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountRepository;
+import com.radoslawzorawicz.bettingapi.domain.accounts.DebitOutcome;
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetQueryRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.MarketOdds;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Odds;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import io.vavr.control.Either;
+import org.assertj.vavr.api.VavrAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+
+@SpringJUnitConfig(BetsPlacementTransactionBoundaryTest.Config.class)
+class BetsPlacementTransactionBoundaryTest {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private AccountRepository accountRepository;
+    @Autowired
+    private BetRepository betRepository;
+    @Autowired
+    private EventsApplicationService events;
+    @Autowired
+    private BetsPlacementService service;
+
+    @AfterEach
+    void resetMocks() {
+        reset(dataSource, accountRepository, betRepository, events);
+    }
+
+    @Test
+    void shouldTakeConnectionOnlyAfterDriverMarketIsResolved() throws Exception {
+        // given
+        final var userId = 7;
+        final var request = new PlaceBetCommand("EVT", 44, new BigDecimal("10.00"));
+        final Connection connection = mock(Connection.class);
+        given(dataSource.getConnection()).willReturn(connection);
+
+        given(events.getMarketOdds("EVT")).willAnswer(ignored -> {
+            then(dataSource).shouldHaveNoInteractions();
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            return Either.right(MarketOdds.price(List.of(new Driver(44, "N", "T")), () -> Odds.of(3)));
+        });
+        given(accountRepository.tryDebit(userId, Money.of(new BigDecimal("10.00")))).willAnswer(ignored -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isTrue();
+            return DebitOutcome.DEBITED;
+        });
+        given(betRepository.save(any(Bet.class))).willAnswer(inv -> ((Bet) inv.getArgument(0)).withId(99));
+
+        // when
+        final var result = service.placeBet(userId, request);
+
+        // then
+        VavrAssertions.assertThat(result).containsOnRight(99);
+        final var inOrder = inOrder(events, dataSource, accountRepository, betRepository, connection);
+        inOrder.verify(events).getMarketOdds("EVT");
+        inOrder.verify(dataSource).getConnection();
+        inOrder.verify(accountRepository).tryDebit(userId, Money.of(new BigDecimal("10.00")));
+        inOrder.verify(betRepository).save(any(Bet.class));
+        inOrder.verify(connection).commit();
+    }
+
+    @Test
+    void shouldNotTakeConnectionWhenDriverMarketLookupFails() {
+        // given
+        final var request = new PlaceBetCommand("EVT", 44, new BigDecimal("10.00"));
+        given(events.getMarketOdds("EVT")).willReturn(Either.left(RaceRetrievalError.RATE_LIMITED));
+
+        // when
+        final var result = service.placeBet(7, request);
+
+        // then
+        VavrAssertions.assertThat(result).containsOnLeft(BetPlacementError.INTERNAL_ERROR);
+        then(dataSource).shouldHaveNoInteractions();
+    }
+
+    @Configuration
+    @EnableTransactionManagement(proxyTargetClass = true)
+    static class Config {
+
+        @Bean
+        DataSource dataSource() {
+            return mock(DataSource.class);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        AccountRepository accountRepository() {
+            return mock(AccountRepository.class);
+        }
+
+        @Bean
+        BetRepository betRepository() {
+            return mock(BetRepository.class);
+        }
+
+        @Bean
+        EventsApplicationService eventsApplicationService() {
+            return mock(EventsApplicationService.class);
+        }
+
+        @Bean
+        BetPlacementWriter betPlacementWriter(AccountRepository accountRepository, BetRepository betRepository) {
+            return new TransactionalBetPlacementWriter(accountRepository, betRepository);
+        }
+
+        @Bean
+        BetsPlacementService betsPlacementService(EventsApplicationService eventsApplicationService,
+                                                  BetPlacementWriter betPlacementWriter) {
+            return new BetsPlacementService(mock(BetQueryRepository.class), eventsApplicationService, betPlacementWriter);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.radoslawzorawicz.bettingapi.application.bets;
+
+import com.radoslawzorawicz.bettingapi.domain.accounts.AccountLedger;
+import com.radoslawzorawicz.bettingapi.domain.accounts.DebitOutcome;
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetRepository;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import org.assertj.vavr.api.VavrAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerBetPlacementWriterTest {
+
+    private static final PlaceBetCommand COMMAND = new PlaceBetCommand("EVT", 44, new BigDecimal("10.00"));
+
+    @Mock
+    private AccountLedger accountLedger;
+    @Mock
+    private BetRepository betRepository;
+    @InjectMocks
+    private LedgerBetPlacementWriter writer;
+
+    @AfterEach
+    void resetMocks() {
+        reset(accountLedger, betRepository);
+    }
+
+    @Test
+    void shouldSaveBetAndRecordDebitWhenLedgerAcceptsIt() {
+        // given
+        final var amount = Money.of(new BigDecimal("10.00"));
+        given(accountLedger.tryDebit(7, amount)).willReturn(DebitOutcome.DEBITED);
+        given(betRepository.save(any(Bet.class))).willAnswer(inv -> ((Bet) inv.getArgument(0)).withId(99));
+
+        // when
+        final var result = writer.write(7, COMMAND, 3);
+
+        // then
+        VavrAssertions.assertThat(result).containsOnRight(99);
+        final var inOrder = inOrder(accountLedger, betRepository);
+        inOrder.verify(accountLedger).tryDebit(7, amount);
+        inOrder.verify(betRepository).save(new Bet(null, "EVT", 44, 7, amount, Bet.BetStatus.PENDING, 3));
+        inOrder.verify(accountLedger).recordDebit(7, amount, 99);
+    }
+
+    @Test
+    void shouldRejectBetWhenBalanceIsTooLow() {
+        // given
+        given(accountLedger.tryDebit(any(), any())).willReturn(DebitOutcome.INSUFFICIENT_FUNDS);
+
+        // when
+        final var result = writer.write(7, COMMAND, 3);
+
+        // then
+        VavrAssertions.assertThat(result).containsOnLeft(BetPlacementError.INSUFFICIENT_FUNDS);
+        then(betRepository).should(never()).save(any());
+        then(accountLedger).should(never()).recordDebit(any(), any(), any());
+    }
+
+    @Test
+    void shouldRejectBetWhenAccountIsUnknown() {
+        // given
+        given(accountLedger.tryDebit(any(), any())).willReturn(DebitOutcome.ACCOUNT_NOT_FOUND);
+
+        // when
+        final var result = writer.write(7, COMMAND, 3);
+
+        // then
+        VavrAssertions.assertThat(result).containsOnLeft(BetPlacementError.ACCOUNT_NOT_FOUND);
+        then(betRepository).should(never()).save(any());
+    }
+
+    @Test
+    void shouldDebitSlipStakeOnceAndRecordDebitPerBet() {
+        // given
+        final var second = new PlaceBetCommand("EVT", 16, new BigDecimal("2.50"));
+        given(accountLedger.tryDebit(7, Money.of(new BigDecimal("12.50")))).willReturn(DebitOutcome.DEBITED);
+        given(betRepository.saveAll(anyList())).willAnswer(inv -> {
+            final List<Bet> bets = inv.getArgument(0);
+            return List.of(bets.get(0).withId(99), bets.get(1).withId(100));
+        });
+
+        // when
+        final var result = writer.writeAll(7, List.of(new PricedBet(COMMAND, 3), new PricedBet(second, 2)));
+
+        // then
+        VavrAssertions.assertThat(result).containsOnRight(List.of(99, 100));
+        then(accountLedger).should().recordDebit(7, Money.of(new BigDecimal("10.00")), 99);
+        then(accountLedger).should().recordDebit(7, Money.of(new BigDecimal("2.50")), 100);
+        then(betRepository).should(never()).save(any());
+    }
+}
@@ -1,17 +1,19 @@
 package com.radoslawzorawicz.bettingapi.application.events;
 
 import com.radoslawzorawicz.bettingapi.domain.events.model.*;
+import com.radoslawzorawicz.bettingapi.domain.events.service.OddsBook;
 import com.radoslawzorawicz.bettingapi.domain.events.service.OddsPolicy;
 import io.vavr.control.Either;
 import io.vavr.control.Option;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.List;
 
@@ -31,38 +33,41 @@ class EventsApplicationServiceTest {
     private DomainEventPublisher publisher;
     @Mock
     private OddsPolicy oddsPolicy;
+    @Mock
+    private SettlementOutbox settlementOutbox;
 
-    @InjectMocks
     private EventsApplicationService service;
 
+    @BeforeEach
+    void setUp() {
+        service = new EventsApplicationService(readRepo, outcomeRepo, new OddsBook(oddsPolicy), publisher, settlementOutbox);
+    }
+
     @AfterEach
     void resetMocks() {
-        reset(readRepo, outcomeRepo, publisher, oddsPolicy);
+        reset(readRepo, outcomeRepo, publisher, oddsPolicy, settlementOutbox);
     }
 
     @Test
-    void shouldMapDriversToMarketUsingOddsPolicy() {
+    void shouldKeepSnapshotAgeWhenPricingDriversMarket() {
         // given
         final String sessionId = "S1";
-        given(readRepo.getDrivers(sessionId)).willReturn(Either.right(List.of(
-                new Driver(44, "Lewis Hamilton", "Mercedes"),
-                new Driver(1, "Max Verstappen", "Red Bull")
-        )));
-        given(oddsPolicy.nextOdds()).willReturn(Odds.of(3));
+        given(readRepo.getDriversSnapshot(sessionId)).willReturn(Either.right(
+                new Snapshot<>(List.of(new Driver(44, "Lewis Hamilton", "Mercedes")), Duration.ofSeconds(90))
+        ));
+        given(outcomeRepo.findById(sessionId)).willReturn(Option.none());
+        given(oddsPolicy.nextOdds()).willReturn(Odds.of(2));
 
         // when
-        final Either<RaceRetrievalError, List<DriverMarket>> result = service.getDriversMarket(sessionId);
+        final Either<RaceRetrievalError, Snapshot<List<DriverMarket>>> result = service.getDriversMarketSnapshot(sessionId);
 
         // then
-        assertThat(result)
-                .hasRightValueSatisfying(market -> Assertions.assertThat(market)
-                        .hasSize(2)
-                        .allMatch(driverMarkets -> driverMarkets.odds() == 3)
-                        .extracting(dm -> dm.driver().driverNumber())
-                        .containsExactly(44, 1)
-                );
-
-        verifyNoInteractions(outcomeRepo, publisher);
+        assertThat(result).hasRightValueSatisfying(snapshot -> {
+            Assertions.assertThat(snapshot.age()).isEqualTo(Duration.ofSeconds(90));
+            Assertions.assertThat(snapshot.value())
+                    .extracting(DriverMarket::odds)
+                    .containsExactly(2);
+        });
     }
 
     @Test
@@ -102,54 +107,101 @@ class EventsApplicationServiceTest {
     }
 
     @Test
-    void shouldMapDriverSpecificMarketUsingOddsPolicy() {
+    void shouldPriceMarketOddsUsingOddsPolicy() {
         // given
         final String sessionId = "S1";
-        final Integer driverId = 44;
-        given(readRepo.getDrivers(sessionId, driverId)).willReturn(Either.right(List.of(
-                new Driver(44, "Lewis Hamilton", "Mercedes")
+        given(readRepo.getDrivers(sessionId)).willReturn(Either.right(List.of(
+                new Driver(44, "Lewis Hamilton", "Mercedes"),
+                new Driver(1, "Max Verstappen", "Red Bull")
         )));
+        given(outcomeRepo.findById(sessionId)).willReturn(Option.none());
         given(oddsPolicy.nextOdds()).willReturn(Odds.of(4));
 
         // when
-        final Either<RaceRetrievalError, List<DriverMarket>> result = service.getDriverMarket(sessionId, driverId);
+        final Either<RaceRetrievalError, MarketOdds> result = service.getMarketOdds(sessionId);
 
         // then
-        assertThat(result)
-                .hasRightValueSatisfying(market -> Assertions.assertThat(market)
-                        .containsExactly(new DriverMarket(new Driver(44, "Lewis Hamilton", "Mercedes"), 4))
-                );
+        assertThat(result).hasRightValueSatisfying(market -> {
+            Assertions.assertThat(market.oddsOf(44)).isEqualTo(4);
+            Assertions.assertThat(market.oddsOf(16)).isEqualTo(MarketOdds.NO_ODDS);
+        });
     }
 
     @Test
-    void shouldPropagateErrorFromGetDriversMarket() {
+    void shouldQuoteSameLockedInOddsOnMarketAndPlacementLookups() {
         // given
-        final String sessionId = "S_ERR";
-        given(readRepo.getDrivers(sessionId)).willReturn(Either.left(RaceRetrievalError.RATE_LIMITED));
+        final String sessionId = "S1";
+        given(readRepo.getDriversSnapshot(sessionId)).willReturn(Either.right(Snapshot.fresh(List.of(
+                new Driver(44, "Lewis Hamilton", "Mercedes"),
+                new Driver(1, "Max Verstappen", "Red Bull")
+        ))));
+        given(outcomeRepo.findById(sessionId)).willReturn(Option.none());
+        given(oddsPolicy.nextOdds()).willReturn(Odds.of(2), Odds.of(4), Odds.of(3));
 
         // when
-        final Either<RaceRetrievalError, List<DriverMarket>> result = service.getDriversMarket(sessionId);
+        final Either<RaceRetrievalError, Snapshot<List<DriverMarket>>> market = service.getDriversMarketSnapshot(sessionId);
+        final Either<RaceRetrievalError, MarketOdds> quote = service.getMarketOdds(sessionId);
+        final Either<RaceRetrievalError, Snapshot<List<DriverMarket>>> requote = service.getDriversMarketSnapshot(sessionId);
 
         // then
-        assertThat(result).containsOnLeft(RaceRetrievalError.RATE_LIMITED);
-        verifyNoInteractions(outcomeRepo, publisher, oddsPolicy);
+        assertThat(quote).hasRightValueSatisfying(odds -> Assertions.assertThat(odds.oddsOf(44)).isEqualTo(market.get().value().stream()
+                .filter(driverMarket -> driverMarket.driver().driverNumber() == 44)
+                .findFirst()
+                .orElseThrow()
+                .odds()));
+        assertThat(requote).containsOnRight(market.get());
+        verify(oddsPolicy, times(2)).nextOdds();
+        verify(readRepo, never()).getDrivers(sessionId);
+    }
+
+    @Test
+    void shouldCloseMarketWhenEventFinishes() {
+        // given
+        final String sessionId = "S1";
+        given(readRepo.getDrivers(sessionId)).willReturn(Either.right(List.of(new Driver(44, "Lewis Hamilton", "Mercedes"))));
+        given(outcomeRepo.findById(sessionId))
+                .willReturn(Option.none())
+                .willReturn(Option.of(new EventOutcome(sessionId, 44, OffsetDateTime.now())));
+        given(outcomeRepo.save(any(EventOutcome.class))).willReturn(Option.of(new EventOutcome(sessionId, 44, OffsetDateTime.now())));
+        given(oddsPolicy.nextOdds()).willReturn(Odds.of(3));
+        service.getMarketOdds(sessionId);
+
+        // when
+        service.finishEvent(sessionId, 44);
+        final Either<RaceRetrievalError, MarketOdds> afterFinish = service.getMarketOdds(sessionId);
+
+        // then
+        assertThat(afterFinish).hasRightValueSatisfying(odds -> Assertions.assertThat(odds.oddsOf(44)).isEqualTo(MarketOdds.NO_ODDS));
+        verify(oddsPolicy, times(1)).nextOdds();
     }
 
     @Test
-    void shouldPropagateErrorFromGetDriverMarket() {
+    void shouldPropagateErrorFromGetMarketOdds() {
         // given
         final String sessionId = "S_ERR";
-        final Integer driverId = 99;
-        given(readRepo.getDrivers(sessionId, driverId)).willReturn(Either.left(RaceRetrievalError.INTERNAL_FAILURE));
+        given(readRepo.getDrivers(sessionId)).willReturn(Either.left(RaceRetrievalError.INTERNAL_FAILURE));
 
         // when
-        final Either<RaceRetrievalError, List<DriverMarket>> result = service.getDriverMarket(sessionId, driverId);
+        final Either<RaceRetrievalError, MarketOdds> result = service.getMarketOdds(sessionId);
 
         // then
         assertThat(result).containsOnLeft(RaceRetrievalError.INTERNAL_FAILURE);
         verifyNoInteractions(outcomeRepo, publisher, oddsPolicy);
     }
 
+    @Test
+    void shouldReadSettlementFromOutbox() {
+        // given
+        final var settlement = new Settlement("E1", 44, SettlementStatus.DONE, 1, null, OffsetDateTime.now(), OffsetDateTime.now());
+        given(settlementOutbox.findByEventId("E1")).willReturn(Option.of(settlement));
+
+        // when
+        final Option<Settlement> result = service.getSettlement("E1");
+
+        // then
+        assertThat(result).contains(settlement);
+    }
+
     @Test
     void shouldReturnInvalidRequestOnFinishEventNullEventId() {
         // when
@@ -0,0 +1,62 @@
+package com.radoslawzorawicz.bettingapi.domain.bets.service;
+
+import com.radoslawzorawicz.bettingapi.domain.bets.Bet;
+import com.radoslawzorawicz.bettingapi.domain.bets.SettlementPolicy;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.lifecycle.AfterContainer;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SettlementPolicyParallelTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private final SettlementPolicy sequential = new SettlementPolicy();
+    private final SettlementPolicy parallel = new SettlementPolicy(POOL, 1);
+
+    @AfterContainer
+    static void shutdownPool() {
+        POOL.shutdownNow();
+    }
+
+    @Property
+    void resolveMatchesSequentialPath(@ForAll("bets") List<Bet> bets, @ForAll("drivers") int winningDriverId) {
+        assertThat(parallel.resolve(bets, winningDriverId))
+                .containsExactlyElementsOf(sequential.resolve(bets, winningDriverId));
+    }
+
+    @Property
+    void payoutsMatchSequentialPath(@ForAll("bets") List<Bet> bets, @ForAll("drivers") int winningDriverId) {
+        final List<Bet> resolved = sequential.resolve(bets, winningDriverId);
+
+        assertThat(parallel.payoutsByUser(resolved).toMap())
+                .isEqualTo(sequential.payoutsByUser(resolved).toMap());
+    }
+
+    @Provide
+    Arbitrary<Integer> drivers() {
+        return Arbitraries.integers().between(1, 5);
+    }
+
+    @Provide
+    Arbitrary<List<Bet>> bets() {
+        return Combinators.combine(
+                Arbitraries.integers().between(1, 5),
+                Arbitraries.integers().between(1, 50),
+                Arbitraries.longs().between(1, 1_000_000),
+                Arbitraries.of(Bet.BetStatus.class),
+                Arbitraries.integers().between(1, 100)
+        ).as((driverId, userId, cents, status, odds) ->
+                new Bet(null, "E1", driverId, userId, Money.ofCents(cents), status, odds)
+        ).list().ofMaxSize(500);
+    }
+}
@@ -50,5 +50,23 @@ class SettlementPolicyTest {
         assertThat(credits.get(1).toBigDecimal()).isEqualByComparingTo("19.00");
         assertThat(credits.get(2).toBigDecimal()).isEqualByComparingTo("16.00");
     }
-}
 
+    @Test
+    void shouldAggregatePayoutCentsPerUserSkippingLostBets() {
+        // given
+        final var bets = List.of(
+                new Bet(1, "e", 10, 1, Money.of(new BigDecimal("5.00")), Bet.BetStatus.WON, 2),  // 10
+                new Bet(2, "e", 11, 1, Money.of(new BigDecimal("7.00")), Bet.BetStatus.LOST, 3),
+                new Bet(3, "e", 10, 1, Money.of(new BigDecimal("0.35")), Bet.BetStatus.WON, 3),  // 1.05
+                new Bet(4, "e", 11, 2, Money.of(new BigDecimal("4.00")), Bet.BetStatus.LOST, 4)
+        );
+
+        // when
+        final var payouts = policy.payoutsByUser(bets);
+
+        // then
+        assertThat(payouts.size()).isEqualTo(1);
+        assertThat(payouts.centsOf(1)).isEqualTo(1_105);
+        assertThat(payouts.userIds()).containsExactly(1);
+    }
+}
@@ -0,0 +1,82 @@
+package com.radoslawzorawicz.bettingapi.domain.bets.service;
+
+import com.radoslawzorawicz.bettingapi.domain.bets.UserPayouts;
+import com.radoslawzorawicz.bettingapi.domain.shared.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserPayoutsTest {
+
+    @Test
+    void shouldAccumulatePayoutsPerUser() {
+        // given
+        final var payouts = new UserPayouts();
+
+        // when
+        payouts.add(1, 1_000);
+        payouts.add(2, 500);
+        payouts.add(1, 250);
+
+        // then
+        assertThat(payouts.size()).isEqualTo(2);
+        assertThat(payouts.centsOf(1)).isEqualTo(1_250);
+        assertThat(payouts.centsOf(2)).isEqualTo(500);
+        assertThat(payouts.centsOf(3)).isZero();
+        assertThat(payouts.userIds()).containsExactlyInAnyOrder(1, 2);
+    }
+
+    @Test
+    void shouldKeepAllEntriesWhenGrowingBeyondInitialCapacity() {
+        // given
+        final var payouts = new UserPayouts(1);
+        final Map<Integer, Long> expected = new HashMap<>();
+
+        // when
+        for (int i = 0; i < 100_000; i++) {
+            final int userId = (i * 7919) % 30_011;
+            payouts.add(userId, i);
+            expected.merge(userId, (long) i, Long::sum);
+        }
+
+        // then
+        assertThat(payouts.size()).isEqualTo(expected.size());
+        expected.forEach((userId, cents) -> assertThat(payouts.centsOf(userId)).isEqualTo(cents));
+    }
+
+    @Test
+    void shouldMergeOtherPayouts() {
+        // given
+        final var left = new UserPayouts();
+        left.add(1, 100);
+        left.add(2, 200);
+        final var right = new UserPayouts();
+        right.add(2, 300);
+        right.add(3, 400);
+
+        // when
+        left.addAll(right);
+
+        // then
+        assertThat(left.toMap()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                1, Money.ofCents(100),
+                2, Money.ofCents(500),
+                3, Money.ofCents(400)
+        ));
+    }
+
+    @Test
+    void shouldRejectOverflowingTotal() {
+        // given
+        final var payouts = new UserPayouts();
+        payouts.add(1, Long.MAX_VALUE);
+
+        // expect
+        assertThatThrownBy(() -> payouts.add(1, 1))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,95 @@
+package com.radoslawzorawicz.bettingapi.domain.events.service;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.MarketOdds;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Odds;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OddsBookTest {
+
+    private final AtomicInteger pricedDrivers = new AtomicInteger();
+    private final OddsBook book = new OddsBook(() -> Odds.of(2 + pricedDrivers.getAndIncrement() % 3));
+
+    @Test
+    void shouldQuoteSameOddsOnRepeatedLookups() {
+        // given
+        final List<Driver> drivers = List.of(new Driver(44, "Lewis", "Mercedes"), new Driver(1, "Max", "RB"));
+
+        // when
+        final MarketOdds first = book.marketFor("S1", drivers);
+        final MarketOdds second = book.marketFor("S1", drivers);
+
+        // then
+        assertThat(second.oddsOf(44)).isEqualTo(first.oddsOf(44));
+        assertThat(second.oddsOf(1)).isEqualTo(first.oddsOf(1));
+        assertThat(pricedDrivers).hasValue(2);
+    }
+
+    @Test
+    void shouldPriceLateDriversWithoutRerollingExistingOnes() {
+        // given
+        final MarketOdds initial = book.marketFor("S1", List.of(new Driver(44, "Lewis", "Mercedes")));
+
+        // when
+        final MarketOdds extended = book.marketFor("S1", List.of(
+                new Driver(44, "Lewis", "Mercedes"),
+                new Driver(16, "Charles", "Ferrari")
+        ));
+
+        // then
+        assertThat(extended.oddsOf(44)).isEqualTo(initial.oddsOf(44));
+        assertThat(extended.oddsOf(16)).isBetween(2, 4);
+        assertThat(pricedDrivers).hasValue(2);
+    }
+
+    @Test
+    void shouldKeepMarketsOfDifferentEventsApart() {
+        // given
+        final List<Driver> drivers = List.of(new Driver(44, "Lewis", "Mercedes"));
+
+        // when
+        book.marketFor("S1", drivers);
+        book.marketFor("S2", drivers);
+
+        // then
+        assertThat(pricedDrivers).hasValue(2);
+    }
+
+    @Test
+    void shouldReturnNoOddsForUnknownEventOrDriver() {
+        // given
+        book.marketFor("S1", List.of(new Driver(44, "Lewis", "Mercedes")));
+
+        // when / then
+        assertThat(book.marketFor("S1", List.of()).oddsOf(99)).isEqualTo(MarketOdds.NO_ODDS);
+        assertThat(book.marketFor("S2", List.of()).oddsOf(44)).isEqualTo(MarketOdds.NO_ODDS);
+    }
+
+    @Test
+    void shouldFindQuotedMarketUntilItIsClosed() {
+        // given
+        final MarketOdds quoted = book.marketFor("S1", List.of(new Driver(44, "Lewis", "Mercedes")));
+
+        // when
+        final var found = book.find("S1");
+        book.close("S1");
+
+        // then
+        assertThat(found.get()).isSameAs(quoted);
+        assertThat(book.find("S1").isEmpty()).isTrue();
+        assertThat(book.find("S2").isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldRejectNullPolicy() {
+        assertThatThrownBy(() -> new OddsBook(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("policy");
+    }
+}
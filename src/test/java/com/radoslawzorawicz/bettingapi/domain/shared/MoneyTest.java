@@ -149,6 +149,14 @@ class MoneyTest {
         assertThat(result.toBigDecimal().scale()).isEqualTo(2);
     }
 
+    @Test
+    void shouldThrowOnNullAddArgument() {
+        // expect
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1.00")).add(null))
+                .isInstanceOf(NullPointerException.class)
+                .hasMessage("other");
+    }
+
     @Test
     void shouldThrowOnNullSubtractArgument() {
         // expect
@@ -156,4 +164,60 @@ class MoneyTest {
                 .isInstanceOf(NullPointerException.class)
                 .hasMessage("other");
     }
+
+    @Test
+    void shouldRoundHalfUpToCents() {
+        // when
+        final Money roundedUp = Money.of(new BigDecimal("0.005"));
+        final Money roundedDown = Money.of(new BigDecimal("0.0049"));
+
+        // then
+        assertThat(roundedUp.cents()).isEqualTo(1L);
+        assertThat(roundedDown.cents()).isZero();
+    }
+
+    @Test
+    void shouldConvertBetweenCentsAndBigDecimal() {
+        // when
+        final Money money = Money.ofCents(1235);
+
+        // then
+        assertThat(money).isEqualTo(Money.of(new BigDecimal("12.35")));
+        assertThat(money.toBigDecimal()).isEqualTo(new BigDecimal("12.35"));
+    }
+
+    @Test
+    void shouldThrowOnNegativeCents() {
+        // expect
+        assertThatThrownBy(() -> Money.ofCents(-1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("non-negative");
+    }
+
+    @Test
+    void shouldThrowOnAddOverflow() {
+        // given
+        final Money max = Money.ofCents(Long.MAX_VALUE);
+
+        // expect
+        assertThatThrownBy(() -> max.add(Money.ofCents(1)))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void shouldThrowOnMultiplyOverflow() {
+        // given
+        final Money large = Money.ofCents(Long.MAX_VALUE / 2 + 1);
+
+        // expect
+        assertThatThrownBy(() -> large.multiply(2))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void shouldThrowWhenAmountDoesNotFitInCents() {
+        // expect
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e30")))
+                .isInstanceOf(ArithmeticException.class);
+    }
 }
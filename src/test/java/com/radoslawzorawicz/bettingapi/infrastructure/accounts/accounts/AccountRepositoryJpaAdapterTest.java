@@ -1,6 +1,7 @@
 package com.radoslawzorawicz.bettingapi.infrastructure.accounts.accounts;
 
 import com.radoslawzorawicz.bettingapi.domain.accounts.Account;
+import com.radoslawzorawicz.bettingapi.domain.accounts.DebitOutcome;
 import com.radoslawzorawicz.bettingapi.domain.shared.Money;
 import com.radoslawzorawicz.bettingapi.infrastructure.accounts.AccountJpaEntity;
 import com.radoslawzorawicz.bettingapi.infrastructure.accounts.AccountJpaRepository;
@@ -49,6 +50,20 @@ class AccountRepositoryJpaAdapterTest {
                 .contains(new Account(1, 5, Money.of(new BigDecimal("10.00"))));
     }
 
+    @Test
+    void shouldMapConditionalDebitResults() {
+        // given
+        given(jpa.tryDebit(5, new BigDecimal("10.00"))).willReturn(List.of(true));
+        given(jpa.tryDebit(6, new BigDecimal("10.00"))).willReturn(List.of(false));
+        given(jpa.tryDebit(7, new BigDecimal("10.00"))).willReturn(List.of());
+
+        // expect
+        final Money amount = Money.of(new BigDecimal("10.00"));
+        assertThat(adapter.tryDebit(5, amount)).isEqualTo(DebitOutcome.DEBITED);
+        assertThat(adapter.tryDebit(6, amount)).isEqualTo(DebitOutcome.INSUFFICIENT_FUNDS);
+        assertThat(adapter.tryDebit(7, amount)).isEqualTo(DebitOutcome.ACCOUNT_NOT_FOUND);
+    }
+
     @Test
     void shouldFindAllByUserIds() {
         given(jpa.findAllByUserIdIn(any())).willReturn(List.of(
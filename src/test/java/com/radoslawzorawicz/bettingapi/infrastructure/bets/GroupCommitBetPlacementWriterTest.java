@@ -0,0 +1,155 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.bets;
+
+import com.radoslawzorawicz.bettingapi.application.bets.BetPlacementWriter;
+import com.radoslawzorawicz.bettingapi.domain.bets.BetPlacementError;
+import com.radoslawzorawicz.bettingapi.domain.bets.PlaceBetCommand;
+import io.vavr.control.Either;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitBetPlacementWriterTest {
+
+    private static final PlaceBetCommand COMMAND = new PlaceBetCommand("EVT", 44, new BigDecimal("10.00"));
+
+    @Mock
+    private BetPlacementWriter delegate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(10);
+    private GroupCommitBetPlacementWriter writer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.close();
+        callers.shutdownNow();
+        reset(delegate, transactionManager);
+    }
+
+    @Test
+    void shouldCommitConcurrentPlacementsInOneTransactionAndAnswerEachCaller() throws Exception {
+        // given
+        writer = writer(1, 10);
+        writer.start();
+        given(delegate.write(anyInt(), eq(COMMAND), eq(3)))
+                .willAnswer(inv -> Either.right(inv.<Integer>getArgument(0) * 100));
+
+        // when
+        final List<Future<Either<BetPlacementError, Integer>>> results = placeForUsers(1, 10);
+
+        // then
+        for (int userId = 1; userId <= 10; userId++) {
+            assertThat(results.get(userId - 1).get().get()).isEqualTo(userId * 100);
+        }
+        then(transactionManager).should(times(1)).getTransaction(any());
+        then(transactionManager).should(times(1)).commit(any());
+    }
+
+    @Test
+    void shouldRetryFailedBatchOnePlacementAtATime() throws Exception {
+        // given
+        writer = writer(1, 3);
+        writer.start();
+        given(delegate.write(anyInt(), eq(COMMAND), eq(3))).willAnswer(inv -> {
+            final Integer userId = inv.getArgument(0);
+            if (userId == 2) {
+                throw new IllegalStateException("insert failed");
+            }
+            return Either.right(userId);
+        });
+
+        // when
+        final List<Future<Either<BetPlacementError, Integer>>> results = placeForUsers(1, 3);
+
+        // then
+        assertThat(results.get(0).get().get()).isEqualTo(1);
+        assertThatThrownBy(() -> results.get(1).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasRootCauseMessage("insert failed");
+        assertThat(results.get(2).get().get()).isEqualTo(3);
+        then(transactionManager).should(times(2)).rollback(any());
+        then(transactionManager).should(times(2)).commit(any());
+    }
+
+    @Test
+    void shouldRejectPlacementWhenShardQueueIsFull() throws Exception {
+        // given
+        writer = new GroupCommitBetPlacementWriter(delegate, new TransactionTemplate(transactionManager), 1, 1, 10, 1);
+        final var completion = new ExecutorCompletionService<Either<BetPlacementError, Integer>>(callers);
+
+        // when
+        completion.submit(() -> writer.write(1, COMMAND, 3));
+        completion.submit(() -> writer.write(2, COMMAND, 3));
+
+        // then
+        assertThat(completion.take().get()).isEqualTo(Either.left(BetPlacementError.PLACEMENT_QUEUE_FULL));
+    }
+
+    @Test
+    void shouldAnswerEveryCallerRacingClose() throws Exception {
+        // given
+        writer = writer(2, 10);
+        writer.start();
+        given(delegate.write(anyInt(), eq(COMMAND), eq(3))).willReturn(Either.right(1));
+        final List<Future<Either<BetPlacementError, Integer>>> results = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            final int userId = i;
+            results.add(callers.submit(() -> writer.write(userId, COMMAND, 3)));
+        }
+        results.getFirst().get(5, TimeUnit.SECONDS);
+
+        // when
+        writer.close();
+
+        // then
+        for (var result : results) {
+            try {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(Either.right(1));
+            } catch (ExecutionException e) {
+                assertThat(e).hasRootCauseMessage("Bet placement writer is shut down");
+            }
+        }
+    }
+
+    private GroupCommitBetPlacementWriter writer(int shards, int batchSize) {
+        given(transactionManager.getTransaction(any())).willReturn(mock(TransactionStatus.class));
+        return new GroupCommitBetPlacementWriter(delegate, new TransactionTemplate(transactionManager), shards, 100, batchSize, 1_000);
+    }
+
+    private List<Future<Either<BetPlacementError, Integer>>> placeForUsers(int fromUserId, int toUserId) {
+        final List<Future<Either<BetPlacementError, Integer>>> results = new ArrayList<>();
+        for (int userId = fromUserId; userId <= toUserId; userId++) {
+            final int user = userId;
+            results.add(callers.submit(() -> writer.write(user, COMMAND, 3)));
+        }
+        return results;
+    }
+}
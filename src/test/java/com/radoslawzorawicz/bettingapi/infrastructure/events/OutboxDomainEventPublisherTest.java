@@ -1,7 +1,7 @@
 package com.radoslawzorawicz.bettingapi.infrastructure.events;
 
 import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinished;
-import com.radoslawzorawicz.bettingapi.domain.events.model.EventFinishedHandler;
+import com.radoslawzorawicz.bettingapi.domain.events.model.SettlementOutbox;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -12,22 +12,22 @@ import java.time.OffsetDateTime;
 import static org.mockito.BDDMockito.then;
 
 @ExtendWith(MockitoExtension.class)
-class InMemoryDomainEventPublisherTest {
+class OutboxDomainEventPublisherTest {
 
     @Mock
-    private EventFinishedHandler handler;
+    private SettlementOutbox outbox;
 
     @Test
-    void shouldForwardEventToHandler() {
+    void shouldEnqueueEventInOutbox() {
         // given
-        final var publisher = new InMemoryDomainEventPublisher(handler);
+        final var publisher = new OutboxDomainEventPublisher(outbox);
         final var event = new EventFinished("EVT-1", 44, OffsetDateTime.parse("2024-01-01T00:00:00Z"));
 
         // when
         publisher.publish(event);
 
         // then
-        then(handler).should().handle(event);
+        then(outbox).should().enqueue(event);
+        then(outbox).shouldHaveNoMoreInteractions();
     }
 }
-
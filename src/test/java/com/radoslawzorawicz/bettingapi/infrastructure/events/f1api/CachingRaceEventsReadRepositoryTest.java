@@ -0,0 +1,298 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Event;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceEventsReadRepository;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Snapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.control.Either;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.vavr.api.VavrAssertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class CachingRaceEventsReadRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+    private static final Duration LIVE_TTL = Duration.ofSeconds(30);
+    private static final Duration FINISHED_TTL = Duration.ofHours(24);
+    private static final Duration MAX_STALENESS = Duration.ofMinutes(10);
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private RaceEventsReadRepository delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> refreshes = new ArrayList<>();
+    private CachingRaceEventsReadRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = repository(Duration.ZERO);
+    }
+
+    @Test
+    void shouldServeRepeatedDriversLookupFromCache() {
+        // given
+        given(delegate.getDrivers("S1")).willReturn(Either.right(List.of(new Driver(44, "Lewis", "Mercedes"))));
+
+        // when
+        repository.getDrivers("S1");
+        final var result = repository.getDrivers("S1");
+
+        // then
+        assertThat(result).containsOnRight(List.of(new Driver(44, "Lewis", "Mercedes")));
+        then(delegate).should(times(1)).getDrivers("S1");
+        assertThat(cacheGets("openf1.drivers", "hit")).isEqualTo(1.0);
+        assertThat(cacheGets("openf1.drivers", "miss")).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldAnswerSingleDriverLookupFromCachedSessionDrivers() {
+        // given
+        given(delegate.getDrivers("S1")).willReturn(Either.right(List.of(
+                new Driver(44, "Lewis", "Mercedes"),
+                new Driver(16, "Charles", "Ferrari")
+        )));
+
+        // when
+        repository.getDrivers("S1");
+        final var result = repository.getDrivers("S1", 16);
+
+        // then
+        assertThat(result).containsOnRight(List.of(new Driver(16, "Charles", "Ferrari")));
+        then(delegate).should(times(1)).getDrivers("S1");
+        then(delegate).should(never()).getDrivers(anyString(), anyInt());
+    }
+
+    @Test
+    void shouldNotCacheErrors() {
+        // given
+        given(delegate.getDrivers("S1"))
+                .willReturn(Either.left(RaceRetrievalError.RATE_LIMITED))
+                .willReturn(Either.right(List.of(new Driver(1, "Max", "RB"))));
+
+        // when
+        final var first = repository.getDrivers("S1");
+        final var second = repository.getDrivers("S1");
+
+        // then
+        assertThat(first).containsOnLeft(RaceRetrievalError.RATE_LIMITED);
+        assertThat(second).containsOnRight(List.of(new Driver(1, "Max", "RB")));
+        then(delegate).should(times(2)).getDrivers("S1");
+    }
+
+    @Test
+    void shouldExpireUpcomingSessionsAfterLiveTtl() {
+        // given
+        final var upcoming = session("S1", OffsetDateTime.ofInstant(NOW.plusSeconds(3600), ZoneOffset.UTC));
+        given(delegate.getEvents(2024, null, "Race")).willReturn(Either.right(List.of(upcoming)));
+
+        // when
+        repository.getEvents(2024, null, "Race");
+        nanos.addAndGet(LIVE_TTL.plusSeconds(1).toNanos());
+        repository.getEvents(2024, null, "Race");
+
+        // then
+        then(delegate).should(times(2)).getEvents(2024, null, "Race");
+    }
+
+    @Test
+    void shouldKeepFinishedSessionsAndTheirDriversForFinishedTtl() {
+        // given
+        final var finished = session("S1", OffsetDateTime.ofInstant(NOW.minusSeconds(3600), ZoneOffset.UTC));
+        given(delegate.getEvents(2024, null, "Race")).willReturn(Either.right(List.of(finished)));
+        given(delegate.getDrivers("S1")).willReturn(Either.right(List.of(new Driver(1, "Max", "RB"))));
+
+        // when
+        repository.getEvents(2024, null, "Race");
+        repository.getDrivers("S1");
+        nanos.addAndGet(LIVE_TTL.plusSeconds(1).toNanos());
+        repository.getEvents(2024, null, "Race");
+        repository.getDrivers("S1");
+
+        // then
+        then(delegate).should(times(1)).getEvents(2024, null, "Race");
+        then(delegate).should(times(1)).getDrivers("S1");
+    }
+
+    @Test
+    void shouldRefreshDriversOfUnknownSessionAfterLiveTtl() {
+        // given
+        given(delegate.getDrivers("S9")).willReturn(Either.right(List.of(new Driver(1, "Max", "RB"))));
+
+        // when
+        repository.getDrivers("S9");
+        nanos.addAndGet(LIVE_TTL.plusSeconds(1).toNanos());
+        repository.getDrivers("S9");
+
+        // then
+        then(delegate).should(times(2)).getDrivers("S9");
+    }
+
+    @Test
+    void shouldServeStaleDriversImmediatelyAndRefreshThemInBackground() {
+        // given
+        final var staleServing = repository(MAX_STALENESS);
+        given(delegate.getDrivers("S1"))
+                .willReturn(Either.right(List.of(new Driver(44, "Lewis", "Mercedes"))))
+                .willReturn(Either.right(List.of(new Driver(44, "Lewis", "Ferrari"))));
+        staleServing.getDrivers("S1");
+        nanos.addAndGet(LIVE_TTL.plusSeconds(12).toNanos());
+
+        // when
+        final var stale = staleServing.getDriversSnapshot("S1");
+        final var alsoStale = staleServing.getDriversSnapshot("S1");
+        refreshes.forEach(Runnable::run);
+        final var refreshed = staleServing.getDriversSnapshot("S1");
+
+        // then
+        assertThat(stale).hasRightValueSatisfying(snapshot -> {
+            assertThat(snapshot.value()).containsExactly(new Driver(44, "Lewis", "Mercedes"));
+            assertThat(snapshot.age()).isEqualTo(LIVE_TTL.plusSeconds(12));
+        });
+        assertThat(alsoStale).isRight();
+        assertThat(refreshes).hasSize(1);
+        assertThat(refreshed).hasRightValueSatisfying(snapshot -> {
+            assertThat(snapshot.value()).containsExactly(new Driver(44, "Lewis", "Ferrari"));
+            assertThat(snapshot.age()).isZero();
+        });
+        then(delegate).should(times(2)).getDrivers("S1");
+    }
+
+    @Test
+    void shouldKeepServingStaleSnapshotWhenRefreshFails() {
+        // given
+        final var staleServing = repository(MAX_STALENESS);
+        given(delegate.getDrivers("S1"))
+                .willReturn(Either.right(List.of(new Driver(1, "Max", "RB"))))
+                .willReturn(Either.left(RaceRetrievalError.INTERNAL_FAILURE));
+        staleServing.getDrivers("S1");
+        nanos.addAndGet(LIVE_TTL.plusSeconds(1).toNanos());
+
+        // when
+        staleServing.getDrivers("S1");
+        refreshes.forEach(Runnable::run);
+        refreshes.clear();
+        final var result = staleServing.getDriversSnapshot("S1");
+
+        // then
+        assertThat(result).hasRightValueSatisfying(snapshot -> assertThat(snapshot.value()).containsExactly(new Driver(1, "Max", "RB")));
+        assertThat(refreshes).hasSize(1);
+    }
+
+    @Test
+    void shouldAgeDriversFromDelegateSnapshotAndRefreshCopyThatArrivesStale() {
+        // given
+        final var staleServing = repository(MAX_STALENESS);
+        given(delegate.getDriversSnapshot("S1"))
+                .willReturn(Either.right(new Snapshot<>(List.of(new Driver(1, "Max", "RB")), LIVE_TTL.plusSeconds(5))));
+
+        // when
+        final var result = staleServing.getDriversSnapshot("S1");
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        final var cached = staleServing.getDriversSnapshot("S1");
+
+        // then
+        assertThat(result).hasRightValueSatisfying(snapshot -> assertThat(snapshot.age()).isEqualTo(LIVE_TTL.plusSeconds(5)));
+        assertThat(cached).hasRightValueSatisfying(snapshot -> assertThat(snapshot.age()).isEqualTo(LIVE_TTL.plusSeconds(6)));
+        assertThat(refreshes).hasSize(1);
+        then(delegate).should(times(1)).getDriversSnapshot("S1");
+    }
+
+    @Test
+    void shouldRetryRefreshAfterExecutorRejectedIt() {
+        // given
+        final var rejecting = new AtomicBoolean(true);
+        final var staleServing = new CachingRaceEventsReadRepository(
+                delegate,
+                new OpenF1CacheProperties(100, FINISHED_TTL, LIVE_TTL, MAX_STALENESS),
+                meterRegistry,
+                refresh -> {
+                    if (rejecting.get()) {
+                        throw new RejectedExecutionException("shutting down");
+                    }
+                    refreshes.add(refresh);
+                },
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                nanos::get
+        );
+        given(delegate.getDrivers("S1")).willReturn(Either.right(List.of(new Driver(1, "Max", "RB"))));
+        staleServing.getDrivers("S1");
+        nanos.addAndGet(LIVE_TTL.plusSeconds(1).toNanos());
+        staleServing.getDrivers("S1");
+
+        // when
+        rejecting.set(false);
+        final var result = staleServing.getDrivers("S1");
+
+        // then
+        assertThat(result).containsOnRight(List.of(new Driver(1, "Max", "RB")));
+        assertThat(refreshes).hasSize(1);
+    }
+
+    @Test
+    void shouldLoadUpstreamOnceSnapshotIsOlderThanMaxStaleness() {
+        // given
+        final var staleServing = repository(MAX_STALENESS);
+        given(delegate.getDrivers("S1"))
+                .willReturn(Either.right(List.of(new Driver(1, "Max", "RB"))))
+                .willReturn(Either.left(RaceRetrievalError.INTERNAL_FAILURE));
+        staleServing.getDrivers("S1");
+        nanos.addAndGet(LIVE_TTL.plus(MAX_STALENESS).plusSeconds(1).toNanos());
+
+        // when
+        final var result = staleServing.getDriversSnapshot("S1");
+
+        // then
+        assertThat(result).containsOnLeft(RaceRetrievalError.INTERNAL_FAILURE);
+        assertThat(refreshes).isEmpty();
+    }
+
+    private CachingRaceEventsReadRepository repository(Duration maxStaleness) {
+        return new CachingRaceEventsReadRepository(
+                delegate,
+                new OpenF1CacheProperties(100, FINISHED_TTL, LIVE_TTL, maxStaleness),
+                meterRegistry,
+                refreshes::add,
+                Clock.fixed(NOW, ZoneOffset.UTC),
+                nanos::get
+        );
+    }
+
+    private double cacheGets(String cache, String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", cache)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static Event session(String sessionKey, OffsetDateTime endTime) {
+        return new Event(sessionKey, "Race", "Race", 2024, "UK", endTime.minusHours(2), endTime);
+    }
+}
@@ -0,0 +1,186 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueueingOpenF1BudgetTest {
+
+    private static final Duration PERIOD = Duration.ofSeconds(1);
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void shouldWaitForNextPeriodWhenPermitArrivesBeforeDeadline() throws Exception {
+        // given
+        final var budget = budget(1, 1, 10, Duration.ofSeconds(2), Duration.ofSeconds(2));
+        budget.tryAcquire(LookupPriority.BROWSING);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var browsing = executor.submit(() -> budget.tryAcquire(LookupPriority.BROWSING));
+            awaitUntil(budget::waiting, 1);
+
+            // when
+            nanos.addAndGet(PERIOD.toNanos());
+
+            // then
+            assertThat(browsing.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(budget.waiting()).isZero();
+    }
+
+    @Test
+    void shouldRejectAtOnceWhenPermitWouldArriveAfterDeadline() {
+        // given
+        final var budget = budget(1, 60, 10, Duration.ofSeconds(1), Duration.ofSeconds(1));
+        budget.tryAcquire(LookupPriority.PLACEMENT);
+
+        // when
+        final boolean acquired = budget.tryAcquire(LookupPriority.PLACEMENT);
+
+        // then
+        assertThat(acquired).isFalse();
+        assertThat(budget.waiting()).isZero();
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        // given
+        final var budget = budget(1, 1, 0, Duration.ofSeconds(2), Duration.ofSeconds(2));
+        budget.tryAcquire(LookupPriority.BROWSING);
+
+        // when
+        final boolean acquired = budget.tryAcquire(LookupPriority.PLACEMENT);
+
+        // then
+        assertThat(acquired).isFalse();
+        assertThat(budget.waiting()).isZero();
+    }
+
+    @Test
+    void shouldServePlacementBeforeBrowsingThatQueuedEarlier() throws Exception {
+        // given
+        final var budget = budget(1, 1, 10, Duration.ofSeconds(3), Duration.ofMillis(1500));
+        budget.tryAcquire(LookupPriority.BROWSING);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var browsing = executor.submit(() -> budget.tryAcquire(LookupPriority.BROWSING));
+            awaitUntil(budget::waiting, 1);
+            final var placement = executor.submit(() -> budget.tryAcquire(LookupPriority.PLACEMENT));
+            awaitUntil(budget::waiting, 2);
+            awaitUntil(budget::parked, 2);
+
+            // when
+            nanos.addAndGet(PERIOD.toNanos());
+
+            // then
+            assertThat(placement.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(browsing.get(5, TimeUnit.SECONDS)).isFalse();
+        }
+    }
+
+    @Test
+    void shouldAdmitCallerBehindQueueWhenPermitsAreLeftForIt() throws Exception {
+        // given
+        final var budget = budget(2, 1, 10, Duration.ofSeconds(2), Duration.ofMillis(500));
+        budget.tryAcquire(LookupPriority.BROWSING);
+        budget.tryAcquire(LookupPriority.BROWSING);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var placement = executor.submit(() -> budget.tryAcquire(LookupPriority.PLACEMENT));
+            awaitUntil(budget::parked, 1);
+            nanos.addAndGet(PERIOD.toNanos());
+
+            // when
+            final var browsing = executor.submit(() -> budget.tryAcquire(LookupPriority.BROWSING));
+
+            // then
+            assertThat(browsing.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(placement.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldNotHoldQueueWhileAskingBudget() throws Exception {
+        // given
+        final var asking = new CountDownLatch(1);
+        final var answer = new CountDownLatch(1);
+        final var budget = new QueueingOpenF1Budget(new OpenF1Budget() {
+            @Override
+            public boolean tryAcquire(LookupPriority priority) {
+                asking.countDown();
+                try {
+                    answer.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+
+            @Override
+            public int available(LookupPriority priority) {
+                return 1;
+            }
+
+            @Override
+            public void drain() {
+            }
+
+            @Override
+            public long nanosUntilRefill() {
+                return 0;
+            }
+        }, rate(1, 1, 10, Duration.ofSeconds(2), Duration.ofSeconds(2)), nanos::get);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var caller = executor.submit(() -> budget.tryAcquire(LookupPriority.BROWSING));
+            asking.await(5, TimeUnit.SECONDS);
+
+            // when
+            final var waiting = executor.submit(budget::waiting);
+
+            // then
+            assertThat(waiting.get(5, TimeUnit.SECONDS)).isZero();
+            answer.countDown();
+            assertThat(caller.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    private QueueingOpenF1Budget budget(int limitForPeriod,
+                                        int periodSeconds,
+                                        int capacity,
+                                        Duration placementMaxWait,
+                                        Duration browsingMaxWait) {
+        final var rate = rate(limitForPeriod, periodSeconds, capacity, placementMaxWait, browsingMaxWait);
+        return new QueueingOpenF1Budget(new LocalOpenF1Budget(rate, nanos::get), rate, nanos::get);
+    }
+
+    private static OpenF1Properties.Rate rate(int limitForPeriod,
+                                              int periodSeconds,
+                                              int capacity,
+                                              Duration placementMaxWait,
+                                              Duration browsingMaxWait) {
+        return new OpenF1Properties.Rate(
+                limitForPeriod,
+                periodSeconds,
+                "node",
+                0,
+                1,
+                new OpenF1Properties.Queue(capacity, placementMaxWait, browsingMaxWait, Duration.ZERO)
+        );
+    }
+
+    private static void awaitUntil(IntSupplier count, int expected) throws InterruptedException {
+        while (count.getAsInt() != expected) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.LookupPriority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void shouldJoinInFlightCallOfSamePriority() throws Exception {
+        // given
+        final var release = new CountDownLatch(1);
+        final var first = blockedCall(LookupPriority.BROWSING, "first", release);
+
+        // when
+        final Future<String> second = joiningCall(LookupPriority.BROWSING, "second");
+        release.countDown();
+
+        // then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void shouldRunOwnCallWhenPlacementJoinsInFlightBackgroundCall() throws Exception {
+        // given
+        final var release = new CountDownLatch(1);
+        final var background = blockedCall(LookupPriority.BACKGROUND, "background", release);
+
+        // when
+        final Future<String> placement = call(LookupPriority.PLACEMENT, "placement");
+
+        // then
+        assertThat(placement.get(5, TimeUnit.SECONDS)).isEqualTo("placement");
+        release.countDown();
+        assertThat(background.get(5, TimeUnit.SECONDS)).isEqualTo("background");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void shouldLetLaterCallersJoinMoreUrgentCall() throws Exception {
+        // given
+        final var releaseBackground = new CountDownLatch(1);
+        final var releasePlacement = new CountDownLatch(1);
+        final var background = blockedCall(LookupPriority.BACKGROUND, "background", releaseBackground);
+        final var placement = blockedCall(LookupPriority.PLACEMENT, "placement", releasePlacement);
+
+        // when
+        final Future<String> browsing = joiningCall(LookupPriority.BROWSING, "browsing");
+        releasePlacement.countDown();
+
+        // then
+        assertThat(browsing.get(5, TimeUnit.SECONDS)).isEqualTo("placement");
+        assertThat(placement.get(5, TimeUnit.SECONDS)).isEqualTo("placement");
+        releaseBackground.countDown();
+        assertThat(background.get(5, TimeUnit.SECONDS)).isEqualTo("background");
+        assertThat(calls).hasValue(2);
+    }
+
+    private Future<String> blockedCall(LookupPriority priority, String result, CountDownLatch release)
+            throws InterruptedException {
+        final var started = new CountDownLatch(1);
+        final Future<String> future = callers.submit(() -> singleFlight.execute("S1", priority, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return result;
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        return future;
+    }
+
+    /**
+     * Starts the call and returns once it either finished on its own or is parked waiting for a call it joined.
+     */
+    private Future<String> joiningCall(LookupPriority priority, String result) throws InterruptedException {
+        final var future = new CompletableFuture<String>();
+        final Thread caller = Thread.ofVirtual().start(() -> future.complete(singleFlight.execute("S1", priority, () -> {
+            calls.incrementAndGet();
+            return result;
+        })));
+        while (!future.isDone() && caller.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        return future;
+    }
+
+    private Future<String> call(LookupPriority priority, String result) {
+        return callers.submit(() -> singleFlight.execute("S1", priority, () -> {
+            calls.incrementAndGet();
+            return result;
+        }));
+    }
+}
@@ -0,0 +1,149 @@
+package com.radoslawzorawicz.bettingapi.infrastructure.events.f1api;
+
+import com.radoslawzorawicz.bettingapi.domain.events.model.Driver;
+import com.radoslawzorawicz.bettingapi.domain.events.model.Event;
+import com.radoslawzorawicz.bettingapi.domain.events.model.MarketOdds;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceEventsReadRepository;
+import com.radoslawzorawicz.bettingapi.domain.events.model.RaceRetrievalError;
+import com.radoslawzorawicz.bettingapi.domain.events.service.OddsBook;
+import com.radoslawzorawicz.bettingapi.domain.events.service.RandomOddsPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.control.Either;
+import org.assertj.vavr.api.VavrAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class UpcomingSessionsWarmerTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:00:00Z");
+    private static final Duration LIVE_TTL = Duration.ofSeconds(30);
+    private static final Duration PIN_TTL = Duration.ofMinutes(30);
+    private static final List<Driver> DRIVERS = List.of(new Driver(44, "Lewis", "Mercedes"), new Driver(16, "Charles", "Ferrari"));
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private RaceEventsReadRepository upstream;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final OddsBook oddsBook = new OddsBook(new RandomOddsPolicy());
+    private final Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+    private CachingRaceEventsReadRepository catalog;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new CachingRaceEventsReadRepository(
+                upstream,
+                new OpenF1CacheProperties(100, Duration.ofHours(24), LIVE_TTL, Duration.ZERO),
+                new SimpleMeterRegistry(),
+                Runnable::run,
+                clock,
+                nanos::get
+        );
+    }
+
+    @Test
+    void shouldPrefetchAndPriceOnlyLiveAndUpcomingSessionsWithinHorizon() {
+        // given
+        given(upstream.getEvents(2024, null, null)).willReturn(Either.right(List.of(
+                session("FINISHED", hoursFromNow(-26), hoursFromNow(-24)),
+                session("LIVE", hoursFromNow(-1), hoursFromNow(1)),
+                session("UPCOMING", hoursFromNow(10), hoursFromNow(12)),
+                session("FAR", hoursFromNow(120), hoursFromNow(122))
+        )));
+        given(upstream.getDrivers(anyString())).willReturn(Either.right(DRIVERS));
+
+        // when
+        final int warmed = warmer(Duration.ZERO).warm(NOW.plusSeconds(60));
+
+        // then
+        assertThat(warmed).isEqualTo(2);
+        then(upstream).should().getDrivers("LIVE");
+        then(upstream).should().getDrivers("UPCOMING");
+        then(upstream).should(never()).getDrivers("FINISHED");
+        then(upstream).should(never()).getDrivers("FAR");
+        final MarketOdds priced = oddsBook.marketFor("UPCOMING", List.of());
+        assertThat(priced.oddsOf(44)).isNotEqualTo(MarketOdds.NO_ODDS);
+        assertThat(priced.oddsOf(16)).isNotEqualTo(MarketOdds.NO_ODDS);
+    }
+
+    @Test
+    void shouldKeepPrefetchedDriversCachedPastLiveTtl() {
+        // given
+        given(upstream.getEvents(2024, null, null)).willReturn(Either.right(List.of(
+                session("UPCOMING", hoursFromNow(10), hoursFromNow(12))
+        )));
+        given(upstream.getDrivers("UPCOMING")).willReturn(Either.right(DRIVERS));
+        warmer(Duration.ZERO).warm(NOW.plusSeconds(60));
+
+        // when
+        nanos.addAndGet(LIVE_TTL.multipliedBy(10).toNanos());
+        final var result = catalog.getDrivers("UPCOMING");
+
+        // then
+        VavrAssertions.assertThat(result).containsOnRight(DRIVERS);
+        then(upstream).should(times(1)).getDrivers("UPCOMING");
+    }
+
+    @Test
+    void shouldStopWhenUpstreamRateLimitsTheWarmer() {
+        // given
+        given(upstream.getEvents(2024, null, null)).willReturn(Either.right(List.of(
+                session("S1", hoursFromNow(1), hoursFromNow(3)),
+                session("S2", hoursFromNow(2), hoursFromNow(4))
+        )));
+        given(upstream.getDrivers("S1")).willReturn(Either.left(RaceRetrievalError.RATE_LIMITED));
+
+        // when
+        final int warmed = warmer(Duration.ZERO).warm(NOW.plusSeconds(60));
+
+        // then
+        assertThat(warmed).isZero();
+        then(upstream).should(never()).getDrivers("S2");
+    }
+
+    @Test
+    void shouldNotStartCallsThatWouldEndPastTheDeadline() {
+        // given
+        given(upstream.getEvents(2024, null, null)).willReturn(Either.right(List.of(
+                session("S1", hoursFromNow(1), hoursFromNow(3))
+        )));
+
+        // when
+        final int warmed = warmer(Duration.ofSeconds(1)).warm(NOW);
+
+        // then
+        assertThat(warmed).isZero();
+        then(upstream).should(never()).getDrivers(anyString());
+    }
+
+    private UpcomingSessionsWarmer warmer(Duration spacing) {
+        return new UpcomingSessionsWarmer(catalog, oddsBook, Duration.ofHours(48), PIN_TTL, spacing, clock);
+    }
+
+    private static OffsetDateTime hoursFromNow(int hours) {
+        return OffsetDateTime.ofInstant(NOW, ZoneOffset.UTC).plusHours(hours);
+    }
+
+    private static Event session(String sessionKey, OffsetDateTime startTime, OffsetDateTime endTime) {
+        return new Event(sessionKey, "Race", "Race", 2024, "UK", startTime, endTime);
+    }
+}